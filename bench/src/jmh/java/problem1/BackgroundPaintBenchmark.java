@@ -0,0 +1,46 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+// BackgroundPanel.paintComponent（4K の元画像を各解像度へ）
+@State(Scope.Thread)
+public class BackgroundPaintBenchmark {
+
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+
+    private PlanetHUDClock.BackgroundPanel panel;
+    private BufferedImage target;
+
+    @Setup
+    public void setup() throws Exception {
+        int w = HUDBench.width(resolution);
+        int h = HUDBench.height(resolution);
+        PlanetHUDClock hud = HUDBench.createHud(w, h);
+
+        // 背景画像の代わりにノイズ画像（JPEG 相当の 4K）
+        BufferedImage source = new BufferedImage(3840, 2160, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                source.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+
+        panel = hud.new BackgroundPanel(source);
+        panel.setSize(w, h);
+        target = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        Graphics2D g2 = target.createGraphics();
+        panel.paintComponent(g2);
+        g2.dispose();
+        return target;
+    }
+}
@@ -0,0 +1,32 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// HUDClockLabel.paintComponent をオフスクリーンの Graphics2D に描画
+@State(Scope.Thread)
+public class ClockPaintBenchmark {
+
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+
+    private PlanetHUDClock.HUDClockLabel clock;
+    private BufferedImage target;
+
+    @Setup
+    public void setup() throws Exception {
+        PlanetHUDClock hud = HUDBench.createHud(HUDBench.width(resolution), HUDBench.height(resolution));
+        clock = HUDBench.find(hud, PlanetHUDClock.HUDClockLabel.class);
+        target = new BufferedImage(clock.getWidth(), clock.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        Graphics2D g2 = target.createGraphics();
+        clock.paintComponent(g2);
+        g2.dispose();
+        return target;
+    }
+}
@@ -0,0 +1,37 @@
+package problem1;
+
+import javax.swing.*;
+import java.awt.*;
+
+// ベンチマーク共通: ヘッドレスで HUD を生成し、指定解像度でレイアウトする
+final class HUDBench {
+
+    private HUDBench() {}
+
+    static PlanetHUDClock createHud(int width, int height) throws Exception {
+        PlanetHUDClock[] hud = new PlanetHUDClock[1];
+        SwingUtilities.invokeAndWait(() -> {
+            hud[0] = new PlanetHUDClock();
+            JComponent root = hud[0].getRoot();
+            RepaintManager.currentManager(root).setDoubleBufferingEnabled(false);
+            root.setSize(width, height);
+            root.doLayout();
+        });
+        return hud[0];
+    }
+
+    static <T extends Component> T find(PlanetHUDClock hud, Class<T> type) {
+        for (Component c : hud.getRoot().getComponents()) {
+            if (type.isInstance(c)) return type.cast(c);
+        }
+        throw new IllegalStateException("component not found: " + type.getSimpleName());
+    }
+
+    static int width(String resolution) {
+        return Integer.parseInt(resolution.substring(0, resolution.indexOf('x')));
+    }
+
+    static int height(String resolution) {
+        return Integer.parseInt(resolution.substring(resolution.indexOf('x') + 1));
+    }
+}
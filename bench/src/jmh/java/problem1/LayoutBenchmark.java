@@ -0,0 +1,26 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+
+// ScaledPanel.doLayout（全HUDコンポーネントの配置）
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    @Param({"1280x720", "1920x1080", "3840x2160"})
+    public String resolution;
+
+    private JComponent root;
+
+    @Setup
+    public void setup() throws Exception {
+        root = HUDBench.createHud(HUDBench.width(resolution), HUDBench.height(resolution)).getRoot();
+    }
+
+    @Benchmark
+    public JComponent doLayout() {
+        root.doLayout();
+        return root;
+    }
+}
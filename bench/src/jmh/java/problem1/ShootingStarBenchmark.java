@@ -0,0 +1,42 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// 流れ星の更新＋描画ループ（1tick分）
+@State(Scope.Thread)
+public class ShootingStarBenchmark {
+
+    private static final int W = 1920;
+    private static final int H = 1080;
+
+    @Param({"1", "100", "5000"})
+    public int particles;
+
+    private ShootingStarSystem stars;
+    private BufferedImage target;
+
+    @Setup
+    public void setup() {
+        stars = new ShootingStarSystem(8192);
+        stars.setSpawnRate(0, 0, 1);
+        stars.burst(particles, W, H);
+        target = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public int updateAndDraw() {
+        // 消えた分を補充して粒子数を一定に保つ
+        if (stars.size() < particles) {
+            stars.burst(particles - stars.size(), W, H);
+        }
+        stars.update(W, H, null);
+
+        Graphics2D g2 = target.createGraphics();
+        stars.draw(g2);
+        g2.dispose();
+        return stars.size();
+    }
+}
@@ -0,0 +1,45 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+
+// 時計文字列の整形（旧 HUDClockLabel.format）
+@State(Scope.Thread)
+public class TimeFormatterBenchmark {
+
+    @Param({"s", "cs", "ms"})
+    public String precision;
+
+    private TimeFormatter formatter;
+    private final char[] out = new char[TimeFormatter.MAX_LENGTH];
+    private final double[] values = new double[1024];
+    private int next;
+
+    @Setup
+    public void setup() {
+        formatter = new TimeFormatter(TimeFormatter.Precision.parse(precision));
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.3) * 1e7;
+        }
+    }
+
+    @Benchmark
+    public int format() {
+        double v = values[next++ & (values.length - 1)];
+        formatter.format(v, out);
+        return out[7] + out[10];
+    }
+
+    // 比較用: 置き換え前の String.format
+    @Benchmark
+    public String stringFormat() {
+        double sec = values[next++ & (values.length - 1)];
+        sec = (sec % 86400 + 86400) % 86400;
+        int h = (int) (sec / 3600);
+        int m = (int) ((sec % 3600) / 60);
+        double s = sec % 60;
+        return String.format("%02d:%02d:%05.2f", h, m, s);
+    }
+}
@@ -0,0 +1,50 @@
+package problem1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.DoubleBuffer;
+
+// 時刻列の一括計算（全天体 × samples 個）
+@State(Scope.Thread)
+public class TimelineBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int samples;
+
+    private PlanetTimeEngine engine;
+    private PlanetTimeline timeline;
+    private double[][] out;
+    private DoubleBuffer direct;
+
+    @Setup
+    public void setup() {
+        engine = PlanetTimeEngine.of(BodyCatalog.defaults());
+        timeline = new PlanetTimeline(engine, PlanetTimeline.Basis.SOLAR);
+        out = new double[timeline.bodies()][samples];
+        direct = PlanetTimeline.allocateDirect(timeline.bodies(), samples);
+    }
+
+    @Benchmark
+    public double heapArrays() {
+        timeline.computeInto(8.1e8, 60.0, samples, out);
+        return out[0][samples - 1];
+    }
+
+    @Benchmark
+    public double directBuffer() {
+        timeline.computeInto(8.1e8, 60.0, samples, direct);
+        return direct.get(samples - 1);
+    }
+
+    // 比較用: サンプルごとにエンジンの tick を回して書き写す
+    @Benchmark
+    public double engineTickLoop() {
+        for (int k = 0; k < samples; k++) {
+            engine.tickSolar(8.1e8 + k * 60.0);
+            for (int b = 0; b < out.length; b++) {
+                out[b][k] = engine.time(b);
+            }
+        }
+        return out[0][samples - 1];
+    }
+}
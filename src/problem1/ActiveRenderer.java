@@ -0,0 +1,243 @@
+package problem1;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// アクティブ描画（Swing のタイマーと再描画要求を使わない）
+// 専用スレッドが Canvas の BufferStrategy へ毎フレーム全面を描き、ディスプレイのリフレッシュレートに合わせて送る。
+// 表示内容は EDT が作る不変スナップショットを volatile で受け取るだけなので、EDT が詰まっても描画は止まらない。
+// 流れ星はこのスレッドが 60tick/秒の固定ステップで進め、120/144Hz の画面では tick 間を補間して描く
+final class ActiveRenderer {
+
+    private static final int BASE_W = 1920;
+    private static final int BASE_H = 1080;
+
+    private static final int FALLBACK_HZ = 60;                     // リフレッシュレートが取れない時
+    private static final long STEP_NANOS = 1_000_000_000L / 60;    // 流れ星の1tick
+    private static final int MAX_STEPS = 5;                        // 大きく遅れた時に一度に進める tick の上限
+    private static final long RECHECK_NANOS = 1_000_000_000L;      // 別の画面へ移った時のためにレートを取り直す間隔
+
+    // 時計1個分（位置・サイズは 1920x1080 基準）
+    record Clock(String name, int x, int y, int w, int h, String time) {}
+
+    // ボタン（1行・中央寄せ）またはステータス表示（複数行）
+    record Panel(boolean button, int x, int y, int w, int h, String[] lines) {}
+
+    // 1フレームで描く内容（EDT で作り、公開後は配列も含めて変更しない）
+    record Snapshot(Clock[] clocks, Panel[] panels, BufferedImage background) {}
+
+    private final Canvas canvas;
+    private final ShootingStarSystem stars;
+    private final Diagnostics diagnostics;
+    private final Thread thread;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean running;
+    private final AtomicInteger pendingBurst = new AtomicInteger();
+
+    // 以下は描画スレッド専用
+    private BufferStrategy strategy;
+    private BufferedImage scaledSource;
+    private BufferedImage scaled;
+    private ChromeLayer[] clockChrome = new ChromeLayer[0];   // 時計・パネルの装飾（表示順の位置ごと）
+    private ChromeLayer[] panelChrome = new ChromeLayer[0];
+
+    ActiveRenderer(Canvas canvas, ShootingStarSystem stars, Diagnostics diagnostics) {
+        this.canvas = canvas;
+        this.stars = stars;
+        this.diagnostics = diagnostics;
+        thread = new Thread(this::run, "active-render");
+        thread.setDaemon(true);
+    }
+
+    // Canvas が表示されてから呼ぶ
+    void start() {
+        canvas.createBufferStrategy(2);
+        strategy = canvas.getBufferStrategy();
+        running = true;
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    // EDT から。次のフレームからこの内容で描く
+    void publish(Snapshot s) {
+        snapshot = s;
+    }
+
+    // 流星群（粒子はこのスレッドだけが触るので、次のフレームでまとめて発生させる）
+    void burst(int count) {
+        pendingBurst.addAndGet(count);
+    }
+
+    private void run() {
+        long period = framePeriod();
+        long now = System.nanoTime();
+        long deadline = now + period;
+        long lastStep = now;
+        long lastCheck = now;
+        long stepDebt = 0;
+
+        while (running) {
+            now = System.nanoTime();
+            if (now < deadline) {
+                LockSupport.parkNanos(deadline - now);
+                continue;
+            }
+
+            // 締め切りを過ぎた分のフレームは描かずに飛ばす（遅れを後に持ち越さない）
+            long late = (now - deadline) / period;
+            if (late > 0) diagnostics.framesSkipped(late);
+            deadline += (late + 1) * period;
+            diagnostics.renderTick(period);
+
+            if (now - lastCheck > RECHECK_NANOS) {
+                period = framePeriod();
+                lastCheck = now;
+            }
+
+            int w = canvas.getWidth();
+            int h = canvas.getHeight();
+            if (w <= 0 || h <= 0) continue;
+
+            // 流れ星は経過時間ぶんの tick を進め、端数は描画時の補間に使う
+            int burst = pendingBurst.getAndSet(0);
+            if (burst > 0) stars.burst(burst, w, h);
+            stepDebt += now - lastStep;
+            lastStep = now;
+            long due = stepDebt / STEP_NANOS;
+            stepDebt -= due * STEP_NANOS;
+            for (long k = Math.min(due, MAX_STEPS); k > 0; k--) {
+                stars.update(w, h, null);
+            }
+            diagnostics.particleCount(stars.size());
+
+            long t0 = System.nanoTime();
+            render(w, h, stepDebt / (float) STEP_NANOS);
+            diagnostics.framePainted(System.nanoTime() - t0);
+        }
+    }
+
+    // 表示中の画面のリフレッシュ周期（ns）
+    private long framePeriod() {
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        int hz = gc == null ? DisplayMode.REFRESH_RATE_UNKNOWN : gc.getDevice().getDisplayMode().getRefreshRate();
+        if (hz <= 0) hz = FALLBACK_HZ;
+        return 1_000_000_000L / hz;
+    }
+
+    // 描画先が失われた時は描き直す（BufferStrategy の定型）
+    private void render(int w, int h, float alpha) {
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    paint(g, w, h, snapshot, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // 1フレーム分（描画スレッドから。オフスクリーン画像へも描ける）
+    void paint(Graphics2D g, int w, int h, Snapshot s, float alpha) {
+        BufferedImage bg = s == null ? null : scaledBackground(s.background(), w, h);
+        if (bg != null) {
+            g.drawImage(bg, 0, 0, null);
+        } else {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, w, h);
+        }
+
+        // 流れ星（背景エフェクト）
+        stars.draw(g, alpha);
+
+        if (s == null) return;
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // ScaledPanel.doLayout と同じ配置
+        double scale = Math.min(w / (double) BASE_W, h / (double) BASE_H);
+
+        clockChrome = ensureChrome(clockChrome, s.clocks().length);
+        panelChrome = ensureChrome(panelChrome, s.panels().length);
+
+        for (int i = 0; i < s.clocks().length; i++) {
+            Clock c = s.clocks()[i];
+            int cx = (int) (c.x() * scale), cy = (int) (c.y() * scale);
+            int cw = (int) (c.w() * scale), ch = (int) (c.h() * scale);
+            g.translate(cx, cy);
+            Graphics2D cg = clockChrome[i].begin(g, cw, ch, c.name());
+            if (cg != null) {
+                PlanetHUDClock.HUDClockLabel.paintPanel(cg, cw, ch, c.name());
+                cg.dispose();
+            }
+            clockChrome[i].draw(g);
+            GlyphAtlas atlas = PlanetHUDClock.HUDClockLabel.fitAtlas(c.time().length(), cw - 20);
+            atlas.draw(g, c.time(), 10, (ch + atlas.ascent()) / 2);
+            g.translate(-cx, -cy);
+        }
+
+        for (int i = 0; i < s.panels().length; i++) {
+            Panel p = s.panels()[i];
+            int px = (int) (p.x() * scale), py = (int) (p.y() * scale);
+            int pw = Math.max((int) (p.w() * scale), p.w() * 2 / 3);   // HUD最小サイズ保証
+            int ph = Math.max((int) (p.h() * scale), p.h() * 2 / 3);
+            g.translate(px, py);
+
+            // ボタンは文字まで、ステータスは地のパネルだけをキャッシュ
+            Graphics2D cg = panelChrome[i].begin(g, pw, ph, p.button() ? p.lines()[0] : null);
+            if (cg != null) {
+                if (p.button()) {
+                    PlanetHUDClock.HUDButton.paintButton(cg, pw, ph, p.lines()[0], false);
+                } else {
+                    PlanetHUDClock.HUDStatusLabel.paintBox(cg, pw, ph);
+                }
+                cg.dispose();
+            }
+            panelChrome[i].draw(g);
+            if (!p.button()) {
+                PlanetHUDClock.HUDStatusLabel.paintText(g, p.lines());
+            }
+            g.translate(-px, -py);
+        }
+    }
+
+    private static ChromeLayer[] ensureChrome(ChromeLayer[] layers, int n) {
+        if (layers.length >= n) return layers;
+        ChromeLayer[] grown = java.util.Arrays.copyOf(layers, n);
+        for (int i = layers.length; i < n; i++) grown[i] = new ChromeLayer();
+        return grown;
+    }
+
+    // サイズか元画像が変わった時だけ拡大縮小し直す
+    private BufferedImage scaledBackground(BufferedImage src, int w, int h) {
+        if (src == null) return null;
+        if (scaled != null && scaledSource == src && scaled.getWidth() == w && scaled.getHeight() == h) {
+            return scaled;
+        }
+
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        BufferedImage out = (gc != null)
+            ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+            : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g2 = out.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(src, 0, 0, w, h, null);
+        g2.dispose();
+
+        scaledSource = src;
+        scaled = out;
+        return scaled;
+    }
+}
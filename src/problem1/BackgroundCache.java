@@ -0,0 +1,110 @@
+package problem1;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 背景画像の共有キャッシュ
+// 同じリソースのデコードはプロセスで1回だけ、拡大縮小は解像度ごとに1回だけ行う（画面が何枚あっても共有）。
+// ウィンドウのリサイズ中に解像度が次々変わるので、縮小済みの画像は最近使ったものだけを残す
+final class BackgroundCache {
+
+    private static final int MAX_SCALED = 4;
+    private static final Map<String, BackgroundCache> BY_RESOURCE = new HashMap<>();
+
+    private volatile BufferedImage source;   // デコード済みの元画像（読み込み前は null）
+    private boolean loading;                 // 以下は EDT 上でのみ触る
+    private final List<Runnable> waiting = new ArrayList<>();
+
+    // 幅・高さ → 縮小済み画像（アクセス順、this で保護）
+    private final LinkedHashMap<Long, BufferedImage> scaled = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_SCALED;
+        }
+    };
+
+    private final String resource;
+
+    private BackgroundCache(String resource, BufferedImage source) {
+        this.resource = resource;
+        this.source = source;
+    }
+
+    // リソースごとに1つ
+    static synchronized BackgroundCache forResource(String resource) {
+        return BY_RESOURCE.computeIfAbsent(resource, r -> new BackgroundCache(r, null));
+    }
+
+    // デコード済みの画像を使う（共有しない）
+    static BackgroundCache of(BufferedImage image) {
+        return new BackgroundCache(null, image);
+    }
+
+    BufferedImage source() {
+        return source;
+    }
+
+    // EDT 上で呼ぶ。読み込み済みならすぐ、未読み込みならデコード後に EDT で onLoaded を呼ぶ
+    // 起動時の最初のフレームを止めないよう、デコードは別スレッドで行う
+    void load(Runnable onLoaded) {
+        if (source != null || resource == null) {
+            onLoaded.run();
+            return;
+        }
+        waiting.add(onLoaded);
+        if (loading) return;
+        loading = true;
+
+        Thread loader = new Thread(() -> {
+            BufferedImage decoded = null;
+            try (InputStream is = getClass().getResourceAsStream(resource)) {
+                if (is != null) decoded = ImageIO.read(is);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            BufferedImage result = decoded;
+            SwingUtilities.invokeLater(() -> {
+                source = result;
+                loading = false;
+                for (Runnable r : waiting) r.run();
+                waiting.clear();
+            });
+        }, "background-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // w x h に拡大縮小した画像（どのスレッドからでもよい）
+    synchronized BufferedImage scaled(int w, int h, GraphicsConfiguration gc) {
+        BufferedImage img = source;
+        if (img == null || w <= 0 || h <= 0) return null;
+
+        long key = ((long) w << 32) | (h & 0xffffffffL);
+        BufferedImage out = scaled.get(key);
+        if (out != null) return out;
+
+        out = (gc != null)
+            ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+            : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g2 = out.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING,
+                            RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(img, 0, 0, w, h, null);
+        g2.dispose();
+
+        scaled.put(key, out);
+        return out;
+    }
+}
@@ -0,0 +1,224 @@
+package problem1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// 天体カタログ（タブ区切りのテキスト → プリミティブ配列の表）
+//
+//   # name   rotation_days  retrograde  x     y     parent   [longitude]  [screen]
+//   Venus    243.018        1           300   335   -
+//   Io       1.769          0           -     -     Jupiter
+//
+// 自転周期は日単位、retrograde が 1 なら逆向き自転（周期を負で持つ）。
+// longitude（東経、度）は省略可で、地方平均太陽時を表示する経度（既定は本初子午線）。
+// screen は複数画面（--screens）の時にどの画面へ出すか（省略時は親と同じ、親もなければ 0）。
+// 位置（1920x1080 基準）が "-" で親があれば親の時計の下に順に並べ、親もなければ HUD には出さない
+final class BodyCatalog {
+
+    static final int NO_PARENT = -1;
+    static final int NO_POSITION = Integer.MIN_VALUE;
+    private static final int NO_SCREEN = -1;
+
+    // 親の下に並べる時の間隔
+    private static final int CHILD_STEP_Y = 90;
+
+    // 組み込みの既定カタログ（--bodies 指定がない時）
+    private static final String DEFAULT = """
+        # name\trotation_days\tretrograde\tx\ty\tparent
+        Mercury\t58.646\t0\t160\t400\t-
+        Venus\t243.018\t1\t300\t335\t-
+        Earth\t1.0\t0\t420\t700\t-
+        Moon\t27.32\t0\t490\t310\tEarth
+        Mars\t1.025957\t0\t580\t380\t-
+        Jupiter\t0.41\t0\t900\t330\t-
+        Saturn\t0.44\t0\t1230\t360\t-
+        Uranus\t0.72\t1\t1500\t360\t-
+        Neptune\t0.67\t0\t1700\t360\t-
+        """;
+
+    private final String[] names;
+    private final double[] rotation;   // 自転周期（秒、逆向き自転は負）
+    private final int[] x;
+    private final int[] y;
+    private final int[] parent;        // 親の行番号（なければ NO_PARENT）
+    private final double[] longitude;  // 東経（度）
+    private final int[] screen;        // 表示する画面
+    private final int count;
+
+    private BodyCatalog(String[] names, double[] rotation, int[] x, int[] y, int[] parent,
+                        double[] longitude, int[] screen, int count) {
+        this.names = names;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.parent = parent;
+        this.longitude = longitude;
+        this.screen = screen;
+        this.count = count;
+    }
+
+    static BodyCatalog defaults() {
+        try {
+            return parse(new StringReader(DEFAULT), "default");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static BodyCatalog load(Path path) throws IOException {
+        try (Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(r, path.toString());
+        }
+    }
+
+    // 1行ずつ読み、正規表現を使わずにタブ位置で列を切り出す
+    static BodyCatalog parse(Reader in, String source) throws IOException {
+        BufferedReader r = new BufferedReader(in);
+
+        int cap = 64;
+        String[] names = new String[cap];
+        double[] rotation = new double[cap];
+        int[] x = new int[cap], y = new int[cap];
+        String[] parentNames = new String[cap];
+        double[] longitude = new double[cap];
+        int[] screen = new int[cap];
+        Map<String, Integer> index = new HashMap<>();
+        int n = 0;
+
+        String line;
+        int lineNo = 0;
+        while ((line = r.readLine()) != null) {
+            lineNo++;
+            int end = line.indexOf('#');
+            if (end < 0) end = line.length();
+            if (line.substring(0, end).isBlank()) continue;
+
+            if (n == cap) {
+                cap *= 2;
+                names = Arrays.copyOf(names, cap);
+                rotation = Arrays.copyOf(rotation, cap);
+                x = Arrays.copyOf(x, cap);
+                y = Arrays.copyOf(y, cap);
+                parentNames = Arrays.copyOf(parentNames, cap);
+                longitude = Arrays.copyOf(longitude, cap);
+                screen = Arrays.copyOf(screen, cap);
+            }
+
+            String[] col = new String[8];
+            int start = 0;
+            for (int c = 0; c < col.length; c++) {
+                if (start > end) {
+                    col[c] = "";
+                    continue;
+                }
+                int tab = line.indexOf('\t', start);
+                int stop = (tab < 0 || tab > end) ? end : tab;
+                col[c] = line.substring(start, stop).trim();
+                start = stop + 1;
+            }
+
+            try {
+                String name = col[0];
+                if (name.isEmpty() || name.equals("-")) throw new IllegalArgumentException("missing name");
+                if (index.putIfAbsent(name, n) != null) throw new IllegalArgumentException("duplicate body: " + name);
+
+                double days = Double.parseDouble(col[1]);
+                if (!(days > 0) || Double.isInfinite(days)) throw new IllegalArgumentException("rotation must be positive: " + col[1]);
+                boolean retro = flag(col[2]);
+
+                names[n] = name;
+                rotation[n] = (retro ? -days : days) * 86400.0;
+                x[n] = coordinate(col[3]);
+                y[n] = coordinate(col[4]);
+                if ((x[n] == NO_POSITION) != (y[n] == NO_POSITION)) throw new IllegalArgumentException("x and y must both be set or both be '-'");
+                parentNames[n] = optional(col[5]);
+                longitude[n] = optional(col[6]) == null ? 0.0 : Double.parseDouble(col[6]);
+                screen[n] = optional(col[7]) == null ? NO_SCREEN : Integer.parseInt(col[7]);
+                if (screen[n] < NO_SCREEN) throw new IllegalArgumentException("screen must not be negative: " + col[7]);
+                n++;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+
+        // 親は後の行にあってもよい
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (parentNames[i] == null) {
+                parent[i] = NO_PARENT;
+                continue;
+            }
+            Integer p = index.get(parentNames[i]);
+            if (p == null) throw new IllegalArgumentException(source + ": unknown parent '" + parentNames[i] + "' of " + names[i]);
+            parent[i] = p;
+        }
+
+        BodyCatalog catalog = new BodyCatalog(Arrays.copyOf(names, n), Arrays.copyOf(rotation, n),
+                                              Arrays.copyOf(x, n), Arrays.copyOf(y, n), parent,
+                                              Arrays.copyOf(longitude, n), Arrays.copyOf(screen, n), n);
+        catalog.placeChildren(source);
+        return catalog;
+    }
+
+    private static boolean flag(String s) {
+        return switch (s) {
+            case "", "-", "0" -> false;
+            case "1" -> true;
+            default -> throw new IllegalArgumentException("retrograde must be 0 or 1: " + s);
+        };
+    }
+
+    private static int coordinate(String s) {
+        return optional(s) == null ? NO_POSITION : Integer.parseInt(s);
+    }
+
+    private static String optional(String s) {
+        return s.isEmpty() || s.equals("-") ? null : s;
+    }
+
+    // 位置のない子を親の下へ順に並べ、画面の指定がなければ親に合わせる（親子の循環はエラー）
+    private void placeChildren(String source) {
+        int[] placed = new int[count];    // 親ごとに並べた子の数
+        byte[] state = new byte[count];   // 0: 未処理, 1: 処理中, 2: 済
+        for (int i = 0; i < count; i++) {
+            place(i, placed, state, source);
+        }
+    }
+
+    private void place(int i, int[] placed, byte[] state, String source) {
+        if (state[i] == 2) return;
+        if (state[i] == 1) throw new IllegalArgumentException(source + ": parent cycle at " + names[i]);
+        state[i] = 1;
+
+        int p = parent[i];
+        if (p != NO_PARENT) {
+            place(p, placed, state, source);
+            if (x[i] == NO_POSITION && x[p] != NO_POSITION) {
+                x[i] = x[p];
+                y[i] = y[p] + CHILD_STEP_Y * ++placed[p];
+            }
+            if (screen[i] == NO_SCREEN) screen[i] = screen[p];
+        }
+        if (screen[i] == NO_SCREEN) screen[i] = 0;
+        state[i] = 2;
+    }
+
+    int size()                { return count; }
+    String name(int i)        { return names[i]; }
+    double rotation(int i)    { return rotation[i]; }
+    boolean retrograde(int i) { return rotation[i] < 0; }
+    int x(int i)              { return x[i]; }
+    int y(int i)              { return y[i]; }
+    int parent(int i)         { return parent[i]; }
+    double longitude(int i)   { return longitude[i]; }
+    int screen(int i)         { return screen[i]; }
+    boolean onHUD(int i)      { return x[i] != NO_POSITION; }
+}
@@ -0,0 +1,73 @@
+package problem1;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+// HUD 要素の変化しない装飾（半透明の角丸パネル・枠・天体名・ボタンの文字など）を描いておく半透明の層
+// 画素サイズか状態（ボタンの文字など）が変わった時、または invalidate() の後（hover の変化など）だけ描き直し、
+// 普段の描画は画像を1回転送するだけにする。変換に拡大が入っていても（保持モード・HiDPI）画素単位で持つのでぼけない
+//
+//   Graphics2D cg = chrome.begin(g2, w, h, state);
+//   if (cg != null) { ...装飾を描く...; cg.dispose(); }
+//   chrome.draw(g2);
+final class ChromeLayer {
+
+    private BufferedImage image;
+    private int w = -1, h = -1;
+    private double sx, sy;
+    private Object state;
+    private boolean stale = true;
+
+    // 画像が古ければ描き直し用の Graphics2D（ユーザー座標で w x h、透明に消去済み）を返す。最新なら null
+    // state は equals で比べる
+    Graphics2D begin(Graphics2D target, int w, int h, Object state) {
+        AffineTransform at = target.getTransform();
+        double sx = at.getScaleX(), sy = at.getScaleY();
+        if (!stale && w == this.w && h == this.h && sx == this.sx && sy == this.sy
+                && java.util.Objects.equals(state, this.state)) {
+            return null;
+        }
+        stale = false;
+        this.w = w;
+        this.h = h;
+        this.sx = sx;
+        this.sy = sy;
+        this.state = state;
+
+        int pw = Math.max(1, (int) Math.ceil(w * sx));
+        int ph = Math.max(1, (int) Math.ceil(h * sy));
+        if (image == null || image.getWidth() != pw || image.getHeight() != ph) {
+            GraphicsConfiguration gc = target.getDeviceConfiguration();
+            image = gc != null
+                ? gc.createCompatibleImage(pw, ph, Transparency.TRANSLUCENT)
+                : new BufferedImage(pw, ph, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, pw, ph);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.scale(sx, sy);
+        return g;
+    }
+
+    // 原点に転送する（begin と同じ変換で呼ぶ）
+    void draw(Graphics2D target) {
+        if (image == null || w <= 0 || h <= 0) return;
+        if (sx == 1 && sy == 1) {
+            target.drawImage(image, 0, 0, null);
+            return;
+        }
+        AffineTransform at = target.getTransform();
+        target.scale(1 / sx, 1 / sy);
+        target.drawImage(image, 0, 0, null);
+        target.setTransform(at);
+    }
+
+    // 次の描画で必ず描き直す
+    void invalidate() {
+        stale = true;
+    }
+}
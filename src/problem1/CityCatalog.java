@@ -0,0 +1,229 @@
+package problem1;
+
+import javax.swing.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import problem1.PlanetHUDClock.City;
+
+// 都市カタログ（お気に入り＋tzdb の全ゾーン＋任意の都市ファイル）
+// 初めて都市選択パネルを開いた時に別スレッドで構築する。
+// 検索用に「正規化したキー → 都市番号」をキー順に並べた配列を持ち、前方一致を二分探索で引く
+final class CityCatalog {
+
+    // 同梱の都市ファイル（name<TAB>zoneId、# 以降はコメント）
+    private static final String BUNDLED_RESOURCE = "/cities.tsv";
+
+    private static CityCatalog instance;
+    private static boolean loading;
+    private static final List<Consumer<CityCatalog>> waiting = new ArrayList<>();
+    private static Path extraFile;
+
+    private final City[] cities;
+    private final String[] keys;      // 正規化済みキー（昇順）
+    private final int[] keyCity;      // keys[i] の都市番号
+
+    // 検索時の重複除去（都市ごとに最後にヒットした検索番号）
+    private final int[] seen;
+    private int generation;
+
+    private CityCatalog(City[] cities) {
+        this.cities = cities;
+
+        // 都市名・都市名の各単語・ゾーンIDをキーにする
+        List<String> k = new ArrayList<>(cities.length * 3);
+        List<Integer> c = new ArrayList<>(cities.length * 3);
+        for (int i = 0; i < cities.length; i++) {
+            String name = normalize(cities[i].name());
+            k.add(name);
+            c.add(i);
+            for (int p = name.indexOf(' '); p >= 0; p = name.indexOf(' ', p + 1)) {
+                k.add(name.substring(p + 1));
+                c.add(i);
+            }
+            k.add(normalize(cities[i].zone().getId()));
+            c.add(i);
+        }
+
+        Integer[] order = new Integer[k.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> k.get(a).compareTo(k.get(b)));
+
+        keys = new String[order.length];
+        keyCity = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = k.get(order[i]);
+            keyCity[i] = c.get(order[i]);
+        }
+        seen = new int[cities.length];
+    }
+
+    // 追加の都市ファイル（起動オプションで指定、カタログ構築前に呼ぶ）
+    static synchronized void setExtraFile(Path path) {
+        extraFile = path;
+    }
+
+    // 構築済みならそのまま、未構築なら別スレッドで構築して EDT 上で done を呼ぶ
+    static void loadAsync(City[] favorites, Consumer<CityCatalog> done) {
+        synchronized (CityCatalog.class) {
+            if (instance != null) {
+                CityCatalog c = instance;
+                SwingUtilities.invokeLater(() -> done.accept(c));
+                return;
+            }
+            waiting.add(done);
+            if (loading) return;
+            loading = true;
+        }
+
+        Thread t = new Thread(() -> {
+            CityCatalog built = build(favorites);
+            List<Consumer<CityCatalog>> callbacks;
+            synchronized (CityCatalog.class) {
+                instance = built;
+                loading = false;
+                callbacks = new ArrayList<>(waiting);
+                waiting.clear();
+            }
+            SwingUtilities.invokeLater(() -> callbacks.forEach(cb -> cb.accept(built)));
+        }, "city-catalog-loader");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // 同期構築（初回のみ）
+    static CityCatalog get(City[] favorites) {
+        synchronized (CityCatalog.class) {
+            if (instance == null) instance = build(favorites);
+            return instance;
+        }
+    }
+
+    private static CityCatalog build(City[] favorites) {
+        List<City> list = new ArrayList<>(Arrays.asList(favorites));
+        Set<String> known = new HashSet<>();
+        for (City f : favorites) known.add(f.zone().getId());
+
+        // 都市ファイル（同梱・追加指定）
+        try (InputStream is = CityCatalog.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+            if (is != null) readCities(new InputStreamReader(is, StandardCharsets.UTF_8), list);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        Path extra;
+        synchronized (CityCatalog.class) {
+            extra = extraFile;
+        }
+        if (extra != null) {
+            try (Reader r = Files.newBufferedReader(extra, StandardCharsets.UTF_8)) {
+                readCities(r, list);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // tzdb の全ゾーン（お気に入りと同じゾーン、Etc/・SystemV/ などは除く）
+        // 同名で規則も同じもの（America/Buenos_Aires と America/Argentina/Buenos_Aires などの別名）は1件にまとめる
+        String[] ids = ZoneId.getAvailableZoneIds().toArray(new String[0]);
+        Arrays.sort(ids);
+        Map<String, ZoneRules> byName = new HashMap<>();
+        for (String id : ids) {
+            if (id.indexOf('/') < 0 || id.startsWith("Etc/") || id.startsWith("SystemV/")) continue;
+            if (!known.add(id)) continue;
+            ZoneId zone = ZoneId.of(id);
+            String name = cityName(id);
+            if (zone.getRules().equals(byName.putIfAbsent(name, zone.getRules()))) continue;
+            list.add(new City(name, zone));
+        }
+
+        return new CityCatalog(list.toArray(new City[0]));
+    }
+
+    private static void readCities(Reader in, List<City> out) throws IOException {
+        BufferedReader r = new BufferedReader(in);
+        String line;
+        while ((line = r.readLine()) != null) {
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            int tab = line.indexOf('\t');
+            if (tab <= 0) continue;
+
+            String name = line.substring(0, tab).trim();
+            int end = line.indexOf('\t', tab + 1);
+            String zone = (end < 0 ? line.substring(tab + 1) : line.substring(tab + 1, end)).trim();
+            try {
+                out.add(new City(name, ZoneId.of(zone)));
+            } catch (DateTimeException e) {
+                // 不明なゾーンは読み飛ばす
+            }
+        }
+    }
+
+    // "America/New_York" → "New York"
+    private static String cityName(String zoneId) {
+        return zoneId.substring(zoneId.lastIndexOf('/') + 1).replace('_', ' ');
+    }
+
+    private static String normalize(String s) {
+        return s.toLowerCase(Locale.ROOT).replace('_', ' ').trim();
+    }
+
+    int size() {
+        return cities.length;
+    }
+
+    City city(int i) {
+        return cities[i];
+    }
+
+    City[] cities() {
+        return cities.clone();
+    }
+
+    // 前方一致検索。ヒットした都市番号をキー順で out に書き、件数を返す（空文字は全件をカタログ順）
+    synchronized int search(CharSequence query, int[] out) {
+        String q = normalize(query.toString());
+        if (q.isEmpty()) {
+            int n = Math.min(out.length, cities.length);
+            for (int i = 0; i < n; i++) out[i] = i;
+            return n;
+        }
+
+        int gen = ++generation;
+        int count = 0;
+        for (int i = lowerBound(q); i < keys.length && keys[i].startsWith(q) && count < out.length; i++) {
+            int city = keyCity[i];
+            if (seen[city] == gen) continue;
+            seen[city] = gen;
+            out[count++] = city;
+        }
+        return count;
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
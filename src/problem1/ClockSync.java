@@ -0,0 +1,311 @@
+package problem1;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// 複数プロセス間の MET 同期（UDP。マルチキャスト、またはユニキャストで 127.0.0.1 などへ）
+// マスターは 50ms ごとに MET・倍率・一時停止・モード・都市を小さなバイナリパケットで送る。
+// フォロワーは受信直後の自分の MET との差を測り、数サンプルのうち遅延が最も小さいもの（差が最大のもの）を採って、
+// 表示上の倍率は変えずに SimulationClock の slew で約1秒かけて差を詰める。大きくずれている時（起動直後など）だけ一度に合わせる。
+// slew は SLEW_SECONDS で切れる（マスターが止まっても補正をかけ続けてずれていかないように、受信は期限付きで待つ）。
+// 片道の遅延は補正しないので同一ホスト・同一 LAN 向け（ループバックなら数十µs）。
+//
+//   パケット（ビッグエンディアン）:
+//     int magic, int session, int seq, double met, double rate, byte timeBase, byte flags(bit0: paused),
+//     short len + UTF-8 都市名, short len + UTF-8 ゾーンID
+final class ClockSync implements AutoCloseable {
+
+    static final String DEFAULT_GROUP = "239.255.42.99";
+    static final int DEFAULT_PORT = 47800;
+
+    private static final int MAGIC = 0x50484331;          // "PHC1"
+    private static final int HEADER = 4 + 4 + 4 + 8 + 8 + 1 + 1;
+    private static final int MAX_PACKET = 512;
+    private static final long SEND_INTERVAL_MILLIS = 50;
+    private static final int WINDOW = 8;                   // slew を決めるまでに集めるサンプル数
+    private static final double SLEW_SECONDS = 1.0;        // この時間でずれを詰める
+    private static final double STEP_SECONDS = 0.25;       // これ以上のずれ（実時間換算）は一度に合わせる
+    private static final int MODE_REPEAT = 20;             // 変化がなくてもこのパケット数ごとにモードを通知
+
+    // モード（時間基準と都市）。timeBase は PlanetHUDClock.TimeBase の序数
+    record Mode(int timeBase, String cityName, String zoneId) {}
+
+    private final DatagramChannel channel;
+    private final Selector selector;   // フォロワーの受信待ち（マスターは null）
+    private final SimulationClock clock;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // マスター
+    private final List<InetSocketAddress> targets;
+    private volatile byte[] modeBytes;
+
+    // フォロワー
+    private final Consumer<Mode> onMode;
+
+    private ClockSync(DatagramChannel channel, SimulationClock clock, List<InetSocketAddress> targets,
+                      Consumer<Mode> onMode, String threadName) throws IOException {
+        this.channel = channel;
+        if (targets == null) {
+            channel.configureBlocking(false);
+            this.selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } else {
+            this.selector = null;
+        }
+        this.clock = clock;
+        this.targets = targets;
+        this.onMode = onMode;
+        this.thread = new Thread(targets != null ? this::sendLoop : this::receiveLoop, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    // targets へ clock の状態を送り続ける
+    static ClockSync master(SimulationClock clock, List<InetSocketAddress> targets, Mode mode) throws IOException {
+        DatagramChannel ch = DatagramChannel.open(StandardProtocolFamily.INET);
+        for (InetSocketAddress t : targets) {
+            if (t.getAddress().isMulticastAddress()) {
+                ch.setOption(StandardSocketOptions.IP_MULTICAST_IF, multicastInterface());
+                ch.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+                ch.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+                break;
+            }
+        }
+        ClockSync sync = new ClockSync(ch, clock, List.copyOf(targets), null, "clock-sync-master");
+        sync.modeChanged(mode);
+        sync.thread.start();
+        return sync;
+    }
+
+    // address（マルチキャストならそのグループ、それ以外はその宛先で待ち受け）から受けて clock を合わせる。
+    // モードは受信スレッドから onMode へ渡す
+    static ClockSync follower(SimulationClock clock, InetSocketAddress address, Consumer<Mode> onMode) throws IOException {
+        DatagramChannel ch = DatagramChannel.open(StandardProtocolFamily.INET);
+        ch.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        if (address.getAddress().isMulticastAddress()) {
+            ch.bind(new InetSocketAddress(address.getPort()));
+            ch.join(address.getAddress(), multicastInterface());
+        } else {
+            ch.bind(address);
+        }
+        ClockSync sync = new ClockSync(ch, clock, null, onMode, "clock-sync-follower");
+        sync.thread.start();
+        return sync;
+    }
+
+    // "host:port"、"host"、":port"、"" を既定値で補って解釈する
+    static InetSocketAddress parseAddress(String spec) throws IOException {
+        String host = spec;
+        int port = DEFAULT_PORT;
+        int colon = spec.lastIndexOf(':');
+        if (colon >= 0) {
+            host = spec.substring(0, colon);
+            port = Integer.parseInt(spec.substring(colon + 1));
+        }
+        if (host.isEmpty()) host = DEFAULT_GROUP;
+        return new InetSocketAddress(InetAddress.getByName(host), port);
+    }
+
+    // マスター: モードが変わった時に呼ぶ（どのスレッドからでもよい）。フォロワーでは何もしない
+    void modeChanged(Mode mode) {
+        if (targets == null) return;
+        byte[] name = utf8(mode.cityName());
+        byte[] zone = utf8(mode.zoneId());
+        ByteBuffer b = ByteBuffer.allocate(1 + 4 + name.length + zone.length);
+        b.put((byte) mode.timeBase());
+        b.putShort((short) name.length).put(name);
+        b.putShort((short) zone.length).put(zone);
+        modeBytes = b.array();
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 200) throw new IllegalArgumentException("too long: " + s);
+        return b;
+    }
+
+    private void sendLoop() {
+        ByteBuffer buf = ByteBuffer.allocate(MAX_PACKET);
+        int session = new SplittableRandom().nextInt();
+        int seq = 0;
+        try {
+            while (!closed) {
+                byte[] mode = modeBytes;
+                double rate = clock.rate();
+                boolean paused = clock.isPaused();
+
+                buf.clear();
+                buf.putInt(MAGIC).putInt(session).putInt(++seq)
+                   .putDouble(clock.metSeconds())    // 送信の直前に読む
+                   .putDouble(rate)
+                   .put(mode[0])
+                   .put((byte) (paused ? 1 : 0))
+                   .put(mode, 1, mode.length - 1);
+                buf.flip();
+                for (InetSocketAddress t : targets) {
+                    buf.rewind();
+                    channel.send(buf, t);
+                }
+                Thread.sleep(SEND_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException | ClosedChannelException e) {
+            // 終了
+        } catch (IOException e) {
+            if (!closed) e.printStackTrace();
+        }
+    }
+
+    private void receiveLoop() {
+        ByteBuffer buf = ByteBuffer.allocate(MAX_PACKET);
+        int session = 0;
+        int lastSeq = 0;
+        boolean synced = false;
+        double best = Double.NEGATIVE_INFINITY;   // 窓内で最大の差（= 最小遅延のサンプル）
+        int samples = 0;
+        byte[] lastMode = new byte[0];
+        int sinceMode = 0;
+        long slewUntil = 0;                       // slew を 0 に戻す時刻（nanoTime、0 なら slew なし）
+
+        try {
+            while (!closed) {
+                // slew 中は期限までしか待たない
+                long wait = 0;
+                if (slewUntil != 0) {
+                    wait = Math.max(1, (slewUntil - System.nanoTime()) / 1_000_000L);
+                }
+                selector.select(wait);
+                selector.selectedKeys().clear();
+                if (slewUntil != 0 && System.nanoTime() - slewUntil >= 0) {
+                    clock.setSlew(0);
+                    slewUntil = 0;
+                }
+
+                buf.clear();
+                if (channel.receive(buf) == null) continue;
+                double local = clock.metSeconds();    // 受信の直後に読む
+                buf.flip();
+                if (buf.remaining() < HEADER || buf.getInt() != MAGIC) continue;
+
+                // マスターが再起動したら（session が変わったら）合わせ直す。同じ session の古い・重複パケットは捨てる
+                int s = buf.getInt();
+                int seq = buf.getInt();
+                if (!synced || s != session) {
+                    session = s;
+                    synced = false;
+                } else if (seq - lastSeq <= 0) {
+                    continue;
+                }
+                lastSeq = seq;
+
+                double met = buf.getDouble();
+                double rate = buf.getDouble();
+                int timeBase = buf.get();
+                boolean paused = (buf.get() & 1) != 0;
+
+                // 倍率・一時停止の切り替えは見た目にも不連続なので、反映と同時に MET も一度に合わせる
+                if (clock.rate() != rate || clock.isPaused() != paused) {
+                    clock.setRate(rate);
+                    if (paused) clock.pause(); else clock.resume();
+                    synced = false;
+                }
+
+                // モードは変化時と一定間隔で通知（HUD 側で同じなら何もしない）
+                int modeLen = buf.remaining();
+                if (++sinceMode >= MODE_REPEAT || !sameMode(buf, timeBase, lastMode)) {
+                    lastMode = new byte[1 + modeLen];
+                    lastMode[0] = (byte) timeBase;
+                    buf.get(buf.position(), lastMode, 1, modeLen);
+                    sinceMode = 0;
+                    Mode m = decodeMode(buf, timeBase);
+                    if (m != null) onMode.accept(m);
+                }
+
+                double error = met - local;
+                double scale = Math.max(1.0, Math.abs(rate));
+                if (!synced || paused || Math.abs(error) > STEP_SECONDS * scale) {
+                    clock.setSlew(0);
+                    slewUntil = 0;
+                    clock.adjust(error);
+                    synced = true;
+                    samples = 0;
+                    best = Double.NEGATIVE_INFINITY;
+                    continue;
+                }
+
+                best = Math.max(best, error);
+                if (++samples == WINDOW) {
+                    clock.setSlew(best / SLEW_SECONDS);
+                    slewUntil = System.nanoTime() + (long) (SLEW_SECONDS * 1e9);
+                    samples = 0;
+                    best = Double.NEGATIVE_INFINITY;
+                }
+            }
+        } catch (ClosedChannelException | ClosedSelectorException e) {
+            // 終了
+        } catch (IOException e) {
+            if (!closed) e.printStackTrace();
+        }
+    }
+
+    private static boolean sameMode(ByteBuffer buf, int timeBase, byte[] last) {
+        if (last.length != 1 + buf.remaining() || last[0] != (byte) timeBase) return false;
+        for (int i = 0, p = buf.position(); p < buf.limit(); i++, p++) {
+            if (buf.get(p) != last[1 + i]) return false;
+        }
+        return true;
+    }
+
+    // 都市名・ゾーンID（壊れたパケットなら null）
+    private static Mode decodeMode(ByteBuffer buf, int timeBase) {
+        try {
+            String name = getString(buf);
+            String zone = getString(buf);
+            return new Mode(timeBase, name, zone);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = buf.getShort();
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // マルチキャストに使うインターフェース（ループバック以外を優先）
+    private static NetworkInterface multicastInterface() throws SocketException {
+        NetworkInterface fallback = null;
+        for (NetworkInterface ni : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!ni.isUp() || !ni.supportsMulticast()) continue;
+            if (!ni.isLoopback()) return ni;
+            fallback = ni;
+        }
+        if (fallback == null) throw new SocketException("no multicast-capable network interface");
+        return fallback;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        channel.close();
+        if (selector != null) selector.close();
+    }
+}
@@ -0,0 +1,71 @@
+package problem1;
+
+import java.util.Arrays;
+
+// 締め切り順の優先度キュー（天体ごとの次の表示更新時刻）
+// 締め切り（nanoTime）と天体番号を並行配列の二分ヒープで持つ。追加・取り出しともアロケーションなし
+final class DeadlineQueue {
+
+    private long[] deadline;
+    private int[] body;
+    private int size;
+
+    DeadlineQueue(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        deadline = new long[cap];
+        body = new int[cap];
+    }
+
+    int size()        { return size; }
+    boolean isEmpty() { return size == 0; }
+
+    void clear() {
+        size = 0;
+    }
+
+    // 最も早い締め切り（空なら Long.MAX_VALUE）
+    long peekDeadline() {
+        return size == 0 ? Long.MAX_VALUE : deadline[0];
+    }
+
+    void add(long at, int b) {
+        if (size == deadline.length) {
+            deadline = Arrays.copyOf(deadline, size * 2);
+            body = Arrays.copyOf(body, size * 2);
+        }
+        // 末尾から親と入れ替えながら上げる
+        int i = size++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (deadline[p] - at <= 0) break;
+            deadline[i] = deadline[p];
+            body[i] = body[p];
+            i = p;
+        }
+        deadline[i] = at;
+        body[i] = b;
+    }
+
+    // 締め切りが now 以前の天体を1つ取り出す（なければ -1）
+    int pollDue(long now) {
+        if (size == 0 || deadline[0] - now > 0) return -1;
+        int b = body[0];
+
+        // 末尾を根に置いて下げる
+        long at = deadline[--size];
+        int moved = body[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            if (c + 1 < size && deadline[c + 1] - deadline[c] < 0) c++;
+            if (at - deadline[c] <= 0) break;
+            deadline[i] = deadline[c];
+            body[i] = body[c];
+            i = c;
+        }
+        deadline[i] = at;
+        body[i] = moved;
+        return b;
+    }
+}
@@ -0,0 +1,183 @@
+package problem1;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// 計測（フレーム描画時間・タイマーのずれ・EDT待ち時間・粒子数・アロケーション量）
+// 記録はリングバッファへのロックなし書き込みのみ。集計は表示時と終了時の出力時だけ行う
+final class Diagnostics {
+
+    final RingHistogram framePaint   = new RingHistogram("frame_paint_ns", 4096);
+    final RingHistogram clockLate    = new RingHistogram("clock_tick_late_ns", 1024);
+    final RingHistogram renderJitter = new RingHistogram("render_timer_jitter_ns", 4096);
+    final RingHistogram frameSkips   = new RingHistogram("frames_skipped", 4096);
+    final RingHistogram edtLatency   = new RingHistogram("edt_latency_ns", 1024);
+    final RingHistogram particles    = new RingHistogram("particles", 4096);
+    final RingHistogram allocRate    = new RingHistogram("edt_alloc_bytes_per_sec", 256);
+    final RingHistogram gcTime       = new RingHistogram("gc_ms_per_sec", 256);
+
+    private final List<RingHistogram> all = List.of(
+        framePaint, clockLate, renderJitter, frameSkips, edtLatency, particles, allocRate, gcTime);
+
+    private long lastRenderTick;
+
+    // EDT 待ち時間の計測用
+    private volatile long probePosted;
+    private final Runnable probe = () -> edtLatency.record(System.nanoTime() - probePosted);
+
+    // 1秒ごとのアロケーション・GC 集計
+    private long lastAllocBytes = -1;
+    private long lastGcMillis = -1;
+
+    private Thread probeThread;
+    private Timer sampleTimer;
+
+    // 時計の更新が締め切りからどれだけ遅れて起きたか
+    void clockLate(long nanos) {
+        clockLate.record(Math.max(0, nanos));
+    }
+
+    // 16ms 描画タイマー（アクティブ描画ではフレームの締め切り）の発火
+    void renderTick(long expectedNanos) {
+        lastRenderTick = recordJitter(renderJitter, lastRenderTick, expectedNanos);
+    }
+
+    private static long recordJitter(RingHistogram h, long last, long expected) {
+        long now = System.nanoTime();
+        if (last != 0) {
+            h.record(Math.abs((now - last) - expected));
+        }
+        return now;
+    }
+
+    // アクティブ描画で締め切りに間に合わず飛ばしたフレーム数
+    void framesSkipped(long n) {
+        frameSkips.record(n);
+    }
+
+    void framePainted(long nanos) {
+        framePaint.record(nanos);
+    }
+
+    void particleCount(int n) {
+        particles.record(n);
+    }
+
+    // EDT 待ち時間のプローブと、毎秒のアロケーション計測を開始（計測パネルの表示中か --metrics の時だけ。開始済みなら何もしない）
+    synchronized void start() {
+        if (probeThread != null) return;
+        Thread t = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                probePosted = System.nanoTime();
+                SwingUtilities.invokeLater(probe);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "edt-probe");
+        t.setDaemon(true);
+        t.start();
+        probeThread = t;
+
+        sampleTimer = new Timer(1000, e -> sampleAllocation());
+        sampleTimer.start();
+    }
+
+    synchronized void stop() {
+        if (probeThread == null) return;
+        probeThread.interrupt();
+        probeThread = null;
+        sampleTimer.stop();
+        sampleTimer = null;
+        // 再開した時に止めていた間の差分を1秒分として記録しないように
+        lastAllocBytes = -1;
+        lastGcMillis = -1;
+    }
+
+    // EDT 上で呼ぶ（EDT スレッドの割り当てバイト数を差分で記録）
+    private void sampleAllocation() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean smx && smx.isThreadAllocatedMemorySupported()) {
+            long bytes = smx.getCurrentThreadAllocatedBytes();
+            if (lastAllocBytes >= 0) allocRate.record(bytes - lastAllocBytes);
+            lastAllocBytes = bytes;
+        }
+
+        long gc = 0;
+        for (GarbageCollectorMXBean b : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gc += Math.max(0, b.getCollectionTime());
+        }
+        if (lastGcMillis >= 0) gcTime.record(gc - lastGcMillis);
+        lastGcMillis = gc;
+    }
+
+    // HUD 表示用の行
+    String[] lines() {
+        RingHistogram.Summary alloc = allocRate.summary();
+        RingHistogram.Summary gc = gcTime.summary();
+        return new String[] {
+            ms("PAINT ", framePaint.summary()),
+            ms("TICK  ", clockLate.summary()),
+            ms("T16   ", renderJitter.summary()),
+            ms("EDT   ", edtLatency.summary()),
+            String.format("STARS %d  ALLOC %.1fMB/s  GC %dms/s",
+                          lastValue(particles), lastValue(allocRate) / 1e6, lastValue(gcTime)),
+        };
+    }
+
+    private static String ms(String label, RingHistogram.Summary s) {
+        return String.format("%s p50 %6.2f  p99 %6.2f ms", label, s.p50() / 1e6, s.p99() / 1e6);
+    }
+
+    private static long lastValue(RingHistogram h) {
+        long[] s = h.snapshot();
+        return s.length == 0 ? 0 : s[s.length - 1];
+    }
+
+    // 拡張子 .json なら JSON、それ以外は CSV で出力
+    void export(Path path) throws IOException {
+        boolean json = path.getFileName().toString().toLowerCase().endsWith(".json");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            if (json) {
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+        }
+    }
+
+    private void writeCsv(PrintWriter out) {
+        out.println("metric,count,min,p50,p90,p99,max");
+        for (RingHistogram h : all) {
+            RingHistogram.Summary s = h.summary();
+            out.printf("%s,%d,%d,%d,%d,%d,%d%n",
+                       h.name(), s.count(), s.min(), s.p50(), s.p90(), s.p99(), s.max());
+        }
+    }
+
+    private void writeJson(PrintWriter out) {
+        out.println("{");
+        for (int i = 0; i < all.size(); i++) {
+            RingHistogram h = all.get(i);
+            RingHistogram.Summary s = h.summary();
+            out.printf("  \"%s\": {\"count\": %d, \"min\": %d, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d, \"samples\": [",
+                       h.name(), s.count(), s.min(), s.p50(), s.p90(), s.p99(), s.max());
+            long[] samples = h.snapshot();
+            for (int k = 0; k < samples.length; k++) {
+                if (k > 0) out.print(',');
+                out.print(samples[k]);
+            }
+            out.println(i + 1 < all.size() ? "]}," : "]}");
+        }
+        out.println("}");
+    }
+}
@@ -0,0 +1,84 @@
+package problem1;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// 1ファイルの変更監視（WatchService はディレクトリ単位なので親ディレクトリを監視してファイル名で絞る）
+// エディタの保存は複数イベントになることが多いので、最後のイベントから少し待ってから1回だけ通知する
+final class FileWatcher implements AutoCloseable {
+
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService service;
+    private final Thread thread;
+
+    FileWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.service = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(service,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(this::run, "file-watcher-" + this.file.getFileName());
+        thread.setDaemon(true);
+    }
+
+    FileWatcher start() {
+        thread.start();
+        return this;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+
+                // 続けて届くイベントをまとめる
+                while (true) {
+                    WatchKey more = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (more == null) break;
+                    changed |= drain(more);
+                }
+
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 終了
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> e : key.pollEvents()) {
+            if (e.context() instanceof Path p && p.equals(file.getFileName())) {
+                changed = true;
+            } else if (e.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        service.close();
+    }
+}
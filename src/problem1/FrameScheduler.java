@@ -0,0 +1,115 @@
+package problem1;
+
+import javax.swing.*;
+import java.awt.*;
+
+// 差分描画スケジューラ
+// フレーム中に変化した領域（流れ星・表示が変わった時計・hover変化）を root 座標の矩形として集め、
+// flush() でその領域だけを描画する。何も変化していなければ何もしない
+final class FrameScheduler {
+
+    private static final int MAX_RECTS = 32;
+
+    private final JComponent root;
+
+    // x, y, w, h の順に詰めて保持
+    private final int[] rects = new int[MAX_RECTS * 4];
+    private int count;
+
+    FrameScheduler(JComponent root) {
+        this.root = root;
+    }
+
+    boolean isDirty() {
+        return count > 0;
+    }
+
+    // コンポーネント全体を再描画対象にする
+    void markDirty(Component c) {
+        markDirty(c, 0, 0, c.getWidth(), c.getHeight());
+    }
+
+    // コンポーネント内の矩形を再描画対象にする
+    void markDirty(Component c, int x, int y, int w, int h) {
+        if (c == null || !c.isShowing()) return;
+
+        // root 座標へ変換（Rectangle を生成しない）
+        for (Component p = c; p != null && p != root; p = p.getParent()) {
+            x += p.getX();
+            y += p.getY();
+        }
+        markDirty(x, y, w, h);
+    }
+
+    // root 座標の矩形を再描画対象にする（重なる矩形は結合）
+    void markDirty(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0) return;
+
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            int rx = rects[o], ry = rects[o + 1], rw = rects[o + 2], rh = rects[o + 3];
+            if (x <= rx + rw && rx <= x + w && y <= ry + rh && ry <= y + h) {
+                int nx = Math.min(x, rx), ny = Math.min(y, ry);
+                int nw = Math.max(x + w, rx + rw) - nx;
+                int nh = Math.max(y + h, ry + rh) - ny;
+                removeAt(i);
+                // 結合で大きくなった矩形が他と重なる可能性があるため再投入
+                markDirty(nx, ny, nw, nh);
+                return;
+            }
+        }
+
+        if (count == MAX_RECTS) {
+            collapse();
+            int nx = Math.min(x, rects[0]), ny = Math.min(y, rects[1]);
+            rects[2] = Math.max(x + w, rects[0] + rects[2]) - nx;
+            rects[3] = Math.max(y + h, rects[1] + rects[3]) - ny;
+            rects[0] = nx;
+            rects[1] = ny;
+            return;
+        }
+
+        int o = count++ * 4;
+        rects[o] = x; rects[o + 1] = y; rects[o + 2] = w; rects[o + 3] = h;
+    }
+
+    // 全体を再描画対象にする（リサイズ時など）
+    void markAllDirty() {
+        count = 0;
+        markDirty(0, 0, root.getWidth(), root.getHeight());
+    }
+
+    // 溜まった領域だけを即時描画。描画した場合 true
+    boolean flush() {
+        if (count == 0) return false;
+
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            root.paintImmediately(rects[o], rects[o + 1], rects[o + 2], rects[o + 3]);
+        }
+        count = 0;
+        return true;
+    }
+
+    private void removeAt(int i) {
+        int last = --count;
+        if (i != last) {
+            System.arraycopy(rects, last * 4, rects, i * 4, 4);
+        }
+    }
+
+    // 全矩形を1つに結合
+    private void collapse() {
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            x0 = Math.min(x0, rects[o]);
+            y0 = Math.min(y0, rects[o + 1]);
+            x1 = Math.max(x1, rects[o] + rects[o + 2]);
+            y1 = Math.max(y1, rects[o + 1] + rects[o + 3]);
+        }
+        rects[0] = x0; rects[1] = y0; rects[2] = x1 - x0; rects[3] = y1 - y0;
+        count = 1;
+    }
+}
@@ -0,0 +1,119 @@
+package problem1;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// 時計用グリフアトラス
+// 数字・コロン・ピリオド・ハイフンをフォントサイズごとに1枚のタイル画像へ事前描画し、
+// 描画時はタイルを転送するだけにする（フレームごとのアロケーションなし）
+final class GlyphAtlas {
+
+    static final String GLYPHS = "0123456789:.-";
+    static final String FONT_NAME = "Monospaced";
+    static final int MAX_SIZE = 128;
+
+    private static final Color DEFAULT_COLOR = new Color(180, 255, 255);
+    private static final GlyphAtlas[] CACHE = new GlyphAtlas[MAX_SIZE + 1];
+
+    private final BufferedImage tiles;
+    private final int size;
+    private final int advance;   // 等幅フォントの1文字幅
+    private final int ascent;
+    private final int height;
+
+    // 文字 → タイル番号（アトラスに無い文字は -1）
+    private final int[] slot = new int[128];
+
+    private GlyphAtlas(int size, Color color) {
+        this.size = size;
+        Font font = new Font(FONT_NAME, Font.BOLD, size);
+
+        // フォント計測用の仮画像
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pg = probe.createGraphics();
+        FontMetrics fm = pg.getFontMetrics(font);
+        int adv = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            adv = Math.max(adv, fm.charWidth(GLYPHS.charAt(i)));
+        }
+        advance = Math.max(1, adv);
+        ascent = fm.getAscent();
+        height = Math.max(1, fm.getAscent() + fm.getDescent());
+        pg.dispose();
+
+        tiles = new BufferedImage(advance * GLYPHS.length(), height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = tiles.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(font);
+        g2.setColor(color);
+
+        java.util.Arrays.fill(slot, -1);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            char ch = GLYPHS.charAt(i);
+            slot[ch] = i;
+            g2.drawString(String.valueOf(ch), i * advance, ascent);
+        }
+        g2.dispose();
+    }
+
+    // サイズごとのアトラスを取得（初回のみ生成。アクティブ描画のスレッドからも呼ばれる）
+    static synchronized GlyphAtlas forSize(int size) {
+        int s = Math.max(1, Math.min(size, MAX_SIZE));
+        GlyphAtlas a = CACHE[s];
+        if (a == null) {
+            a = new GlyphAtlas(s, DEFAULT_COLOR);
+            CACHE[s] = a;
+        }
+        return a;
+    }
+
+    // 幅 maxWidth に len 文字が収まる最大サイズ（baseSize 以下、minSize 以上）
+    static int fitSize(int baseSize, int minSize, int len, int maxWidth) {
+        GlyphAtlas base = forSize(baseSize);
+        int tw = base.advance * len;
+        if (tw <= maxWidth) return baseSize;
+
+        float ratio = (float) maxWidth / tw;
+        return Math.max((int) (baseSize * ratio), minSize);
+    }
+
+    int size()    { return size; }
+    int advance() { return advance; }
+    int ascent()  { return ascent; }
+    int height()  { return height; }
+
+    int width(int len) {
+        return advance * len;
+    }
+
+    // ベースライン y に文字列を転送描画し、描画後の x を返す
+    int draw(Graphics2D g2, CharSequence text, int x, int y) {
+        int top = y - ascent;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            drawGlyph(g2, text.charAt(i), x, top);
+            x += advance;
+        }
+        return x;
+    }
+
+    int draw(Graphics2D g2, char[] text, int off, int len, int x, int y) {
+        int top = y - ascent;
+        for (int i = off, end = off + len; i < end; i++) {
+            drawGlyph(g2, text[i], x, top);
+            x += advance;
+        }
+        return x;
+    }
+
+    private void drawGlyph(Graphics2D g2, char ch, int x, int top) {
+        int s = ch < slot.length ? slot[ch] : -1;
+        if (s < 0) return;   // アトラス外の文字は空白扱い
+
+        int sx = s * advance;
+        g2.drawImage(tiles,
+                     x, top, x + advance, top + height,
+                     sx, 0, sx + advance, height,
+                     null);
+    }
+}
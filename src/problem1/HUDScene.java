@@ -0,0 +1,198 @@
+package problem1;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+// 保持モードのシーングラフ（--retained）
+// HUD の要素を Swing の部品階層に載せず、1920x1080 基準座標の節点として持つ。
+// 1つのビューが拡大率1つの変換の下で全節点を奥から順に描き、当たり判定も節点の矩形で行う。
+// リサイズは描画時の拡大率が変わるだけで、節点ごとの setBounds や Z オーダーの並べ替えはない
+final class HUDScene {
+
+    static final int BASE_W = 1920;
+    static final int BASE_H = 1080;
+
+    // 重なり順（大きいほど手前。同じ層では後から追加したものが手前）
+    static final int LAYER_BACK  = 0;   // 暗幕
+    static final int LAYER_HUD   = 1;   // 時計・ボタン・ステータス
+    static final int LAYER_FRONT = 2;   // 選択パネル
+
+    // 節点。描画とマウスの座標は基準座標で、節点の左上が原点
+    interface Node extends PlanetHUDClock.ScalableComponent {
+        boolean isVisible();
+
+        // baseW() x baseH() の範囲に描く（変換・クリップは戻すこと）
+        void paintNode(Graphics2D g2);
+
+        // マウスを受けるか（受けない節点は当たり判定で素通り）
+        default boolean interactive() { return false; }
+
+        default void nodeMoved(int x, int y) {}
+        default void nodeExited() {}
+        default void nodePressed(int x, int y) {}
+        // 押した節点にはボタンを離すまでドラッグが届く（節点の外に出ても）
+        default void nodeDragged(int x, int y) {}
+    }
+
+    private record Entry(Node node, int layer) {}
+
+    private final FrameScheduler scheduler;
+    private final View view = new View();
+    private final List<Entry> entries = new ArrayList<>();   // 奥から手前の順
+    private Node hover;
+    private Node pressed;            // ドラッグ中の節点（背景なら null）
+    private DoubleConsumer onBackgroundPressed = x -> {};
+    private DoubleConsumer onBackgroundDragged = x -> {};
+
+    HUDScene(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    // シーンを描く部品（HUD の全面に置く）
+    JComponent view() {
+        return view;
+    }
+
+    // どの節点にも当たらなかったクリックと、そこから続くドラッグ（基準座標の x を渡す）
+    void setOnBackgroundPressed(DoubleConsumer c) {
+        onBackgroundPressed = c;
+    }
+
+    void setOnBackgroundDragged(DoubleConsumer c) {
+        onBackgroundDragged = c;
+    }
+
+    void add(Node n, int layer) {
+        int i = entries.size();
+        while (i > 0 && entries.get(i - 1).layer() > layer) i--;
+        entries.add(i, new Entry(n, layer));
+        markDirty(n);
+    }
+
+    void remove(Node n) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).node() == n) {
+                entries.remove(i);
+                markDirty(n);
+                break;
+            }
+        }
+        if (hover == n) hover = null;
+        if (pressed == n) pressed = null;
+    }
+
+    // 基準座標 → ビュー座標の拡大率（ScaledPanel と同じく左上揃え）
+    double scale() {
+        return Math.min(view.getWidth() / (double) BASE_W, view.getHeight() / (double) BASE_H);
+    }
+
+    // 節点内の矩形（基準座標）を再描画対象にする。アンチエイリアスのにじみ分だけ広げる
+    void markDirty(Node n, int x, int y, int w, int h) {
+        double s = scale();
+        int x0 = (int) Math.floor((n.baseX() + x) * s) - 1;
+        int y0 = (int) Math.floor((n.baseY() + y) * s) - 1;
+        int x1 = (int) Math.ceil((n.baseX() + x + w) * s) + 1;
+        int y1 = (int) Math.ceil((n.baseY() + y + h) * s) + 1;
+        scheduler.markDirty(view, x0, y0, x1 - x0, y1 - y0);
+    }
+
+    void markDirty(Node n) {
+        markDirty(n, 0, 0, n.baseW(), n.baseH());
+    }
+
+    // 表示の切り替えなど、まとめて描き直す時
+    void repaint() {
+        view.repaint();
+    }
+
+    // 基準座標の点に掛かる最も手前の節点
+    Node hit(double x, double y) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Node n = entries.get(i).node();
+            if (!n.isVisible() || !n.interactive()) continue;
+            if (x >= n.baseX() && y >= n.baseY() && x < n.baseX() + n.baseW() && y < n.baseY() + n.baseH()) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private void moved(int px, int py) {
+        double s = scale();
+        double x = px / s, y = py / s;
+        Node n = hit(x, y);
+        if (n != hover) {
+            if (hover != null) hover.nodeExited();
+            hover = n;
+        }
+        if (n != null) n.nodeMoved((int) x - n.baseX(), (int) y - n.baseY());
+    }
+
+    private void pressed(int px, int py) {
+        double s = scale();
+        double x = px / s, y = py / s;
+        Node n = hit(x, y);
+        pressed = n;
+        if (n != null) {
+            n.nodePressed((int) x - n.baseX(), (int) y - n.baseY());
+        } else {
+            onBackgroundPressed.accept(x);
+        }
+    }
+
+    private void dragged(int px, int py) {
+        double s = scale();
+        double x = px / s, y = py / s;
+        Node n = pressed;
+        if (n != null) {
+            n.nodeDragged((int) x - n.baseX(), (int) y - n.baseY());
+        } else {
+            onBackgroundDragged.accept(x);
+        }
+    }
+
+    private final class View extends JComponent {
+
+        View() {
+            setOpaque(false);
+            MouseAdapter mouse = new MouseAdapter() {
+                @Override public void mouseMoved(MouseEvent e)   { moved(e.getX(), e.getY()); }
+                @Override public void mousePressed(MouseEvent e) { pressed(e.getX(), e.getY()); }
+                @Override public void mouseDragged(MouseEvent e) { dragged(e.getX(), e.getY()); }
+                @Override public void mouseExited(MouseEvent e) {
+                    if (hover != null) hover.nodeExited();
+                    hover = null;
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+        }
+
+        // 拡大率1つの変換の下で、クリップに掛かる節点だけを奥から描く
+        @Override
+        protected void paintComponent(Graphics g) {
+            double s = scale();
+            if (s <= 0) return;
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.scale(s, s);
+
+            Rectangle clip = g2.getClipBounds();
+            for (int i = 0; i < entries.size(); i++) {
+                Node n = entries.get(i).node();
+                if (!n.isVisible()) continue;
+                int x = n.baseX(), y = n.baseY();
+                if (clip != null && !clip.intersects(x, y, n.baseW(), n.baseH())) continue;
+                g2.translate(x, y);
+                n.paintNode(g2);
+                g2.translate(-x, -y);
+            }
+            g2.dispose();
+        }
+    }
+}
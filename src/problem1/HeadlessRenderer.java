@@ -0,0 +1,219 @@
+package problem1;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// ヘッドレス描画
+// ウィンドウを作らずに HUD をオフスクリーン画像へ描画し、連番PNGまたは生RGBストリームで書き出す。
+// 描画（EDT）と書き出し（ワーカースレッド）はフレームバッファを使い回しながら並行に動く
+final class HeadlessRenderer {
+
+    // RAW_BGR は描画先のバイト列をそのまま出力できるので変換コストがかからない
+    enum Format { PNG, RAW_RGB, RAW_BGR }
+
+    // 起動オプション（--size=1920x1080 --fps=30 --frames=0 --out=DIR --raw[=rgb24|bgr24]）
+    static final class Options {
+        int width = 1920;
+        int height = 1080;
+        double fps = 30;
+        long frames = 0;        // 0 は無制限
+        Format format = Format.RAW_RGB;
+        File outDir;
+
+        void parse(String arg) {
+            if (arg.startsWith("--size=")) {
+                String[] v = arg.substring("--size=".length()).toLowerCase().split("x");
+                width = Integer.parseInt(v[0]);
+                height = Integer.parseInt(v[1]);
+            } else if (arg.startsWith("--fps=")) {
+                fps = Double.parseDouble(arg.substring("--fps=".length()));
+            } else if (arg.startsWith("--frames=")) {
+                frames = Long.parseLong(arg.substring("--frames=".length()));
+            } else if (arg.startsWith("--out=")) {
+                outDir = new File(arg.substring("--out=".length()));
+                format = Format.PNG;
+            } else if (arg.equals("--raw") || arg.equals("--raw=rgb24")) {
+                format = Format.RAW_RGB;
+            } else if (arg.equals("--raw=bgr24")) {
+                format = Format.RAW_BGR;
+            }
+        }
+    }
+
+    // 使い回すフレームバッファ
+    private static final class Frame {
+        final BufferedImage image;
+        final int[] pixels;    // TYPE_INT_RGB の画素
+        final byte[] bytes;    // 出力するバイト列（RGB24 変換先、または BGR 画像の画素そのもの）
+        long index;
+
+        Frame(int w, int h, Format format) {
+            if (format == Format.RAW_BGR) {
+                image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+                pixels = null;
+                bytes = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            } else {
+                image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                bytes = format == Format.RAW_RGB ? new byte[w * h * 3] : null;
+            }
+        }
+    }
+
+    private static final Frame END = new Frame(1, 1, Format.PNG);
+
+    private final JComponent root;
+    private final Options options;
+
+    private final BlockingQueue<Frame> free;
+    private final BlockingQueue<Frame> filled;
+    private final int workers;
+
+    // EDT 上で実行する描画処理（フレームごとにラムダを生成しない）
+    private Frame target;
+    private final Runnable paintTask = this::paintTarget;
+
+    private volatile IOException failure;
+
+    HeadlessRenderer(JComponent root, Options options) {
+        this.root = root;
+        this.options = options;
+
+        // PNG は圧縮が重いのでコア数に合わせて並列化、RAW は順序を守るため1本
+        this.workers = options.format == Format.PNG
+            ? Math.max(1, Runtime.getRuntime().availableProcessors() - 1)
+            : 1;
+
+        int buffers = workers + 2;
+        free = new ArrayBlockingQueue<>(buffers);
+        filled = new ArrayBlockingQueue<>(buffers + workers);
+        for (int i = 0; i < buffers; i++) {
+            free.add(new Frame(options.width, options.height, options.format));
+        }
+    }
+
+    void run() throws Exception {
+        if (options.format == Format.PNG && options.outDir != null) {
+            options.outDir.mkdirs();
+        }
+
+        // 指定解像度でレイアウト（直接描画するので Swing のダブルバッファは不要）
+        SwingUtilities.invokeAndWait(() -> {
+            RepaintManager.currentManager(root).setDoubleBufferingEnabled(false);
+            root.setSize(options.width, options.height);
+            root.doLayout();
+        });
+
+        OutputStream raw = options.format != Format.PNG
+            ? new BufferedOutputStream(System.out, 1 << 20)
+            : null;
+
+        Thread[] writers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            writers[i] = new Thread(() -> writeLoop(raw), "headless-writer-" + i);
+            writers[i].start();
+        }
+
+        long interval = (long) (1_000_000_000L / options.fps);
+        long next = System.nanoTime();
+        long late = 0;
+
+        for (long n = 0; options.frames == 0 || n < options.frames; n++) {
+            if (failure != null) break;
+
+            // フレーム間隔を保つ（遅れている場合は待たずに次を描く）
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+            } else if (n > 0) {
+                late++;
+            }
+            next += interval;
+
+            Frame f = free.take();
+            f.index = n;
+            target = f;
+            SwingUtilities.invokeAndWait(paintTask);
+            filled.put(f);
+        }
+
+        for (int i = 0; i < workers; i++) filled.put(END);
+        for (Thread t : writers) t.join();
+        if (raw != null) raw.flush();
+
+        if (late > 0) {
+            System.err.println("headless: " + late + " frame(s) rendered behind schedule");
+        }
+        if (failure != null) throw failure;
+    }
+
+    // EDT 上で HUD 全体を描画
+    private void paintTarget() {
+        Frame f = target;
+        Graphics2D g2 = f.image.createGraphics();
+        try {
+            g2.setClip(0, 0, options.width, options.height);
+            root.paint(g2);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void writeLoop(OutputStream raw) {
+        try {
+            while (true) {
+                Frame f = filled.take();
+                if (f == END) return;
+
+                if (failure == null) {
+                    if (raw != null) {
+                        writeRaw(f, raw);
+                    } else {
+                        writePng(f);
+                    }
+                }
+                free.put(f);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // RGB24 は 0xRRGGBB から詰め替え、BGR24 は画素をそのまま出力
+    private void writeRaw(Frame f, OutputStream out) {
+        if (f.pixels != null) {
+            int[] px = f.pixels;
+            byte[] rgb = f.bytes;
+            for (int i = 0, j = 0; i < px.length; i++, j += 3) {
+                int p = px[i];
+                rgb[j]     = (byte) (p >> 16);
+                rgb[j + 1] = (byte) (p >> 8);
+                rgb[j + 2] = (byte) p;
+            }
+        }
+        try {
+            out.write(f.bytes);
+        } catch (IOException e) {
+            failure = e;   // パイプ切断など
+        }
+    }
+
+    private void writePng(Frame f) {
+        File file = new File(options.outDir, String.format("frame_%06d.png", f.index));
+        try {
+            ImageIO.write(f.image, "png", file);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
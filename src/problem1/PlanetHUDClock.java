@@ -4,51 +4,66 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.*;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PlanetHUDClock extends JFrame {
+// HUD本体（ウィンドウとは分離し、ヘッドレス環境でも生成できる）
+public class PlanetHUDClock {
      
      // 時間基準
      enum TimeBase {
          SIM_X1,
          SIM_X10,
          SIM_X100,
-         REAL_WORLD
+         REAL_WORLD,
+         SOLAR,         // 各天体の地方平均太陽時（現在の UTC から J2000 起点で計算）
+         SCRUB          // 地球側の時刻をドラッグ・スライダーで前後に動かす
      }
 
      private TimeBase timeBase = TimeBase.SIM_X1;
-     private int selectedCityIndex = 0;
+     private City selectedCity = WORLD_CITIES[0];
+     private ZoneOffsetCache selectedOffsets = new ZoneOffsetCache(selectedCity.zone());
      private HUDCitySelectPanel citySelectPanel;
      private HUDButton timeButton;
      private HUDOverlay overlay;
+     private HUDWorldGrid worldGrid;
 
-     // 流れ星管理
-     private final java.util.List<ShootingStar> shootingStars = new ArrayList<>();
-     private int shootingStarCooldown = 0;
+     // HUD全体のルート（ウィンドウのコンテンツ、またはオフスクリーン描画の対象）
+     private final ScaledPanel root;
+
+     // 差分描画スケジューラ
+     private FrameScheduler scheduler;
+     private Timer renderTimer;
+
+     // アクティブ描画（--active 指定時のみ）
+     private ActiveRenderer activeRenderer;
+
+     // 計測（F3 で HUD 表示を切り替え、全画面で共有）
+     private final Diagnostics diagnostics;
+     private HUDStatusLabel diagnosticsLabel;
+
+     // 流れ星管理（固定容量のパーティクルプール）
+     private final ShootingStarSystem shootingStars = new ShootingStarSystem(8192);
 
      private void updateShootingStars() {
+         shootingStars.update(root.getWidth(), root.getHeight(), scheduler);
+         diagnostics.particleCount(shootingStars.size());
+     }
 
-         // クールダウン
-         if (shootingStarCooldown > 0) {
-             shootingStarCooldown--;
+     // 流星群を発生させる（アクティブ描画中は描画スレッドに依頼する）
+     void meteorShower(int count) {
+         if (activeRenderer != null) {
+             activeRenderer.burst(count);
          } else {
-             // ランダム発生（低確率）
-             if (Math.random() < 0.01) {
-                 shootingStars.add(new ShootingStar(getWidth(), getHeight()));
-                 shootingStarCooldown = 60;
-             }
+             shootingStars.burst(count, root.getWidth(), root.getHeight());
          }
+     }
 
-          // 更新＆削除
-          shootingStars.removeIf(star -> {
-              star.update();
-              return !star.isAlive();
-          });
-      }
+     // 発生確率・クールダウン(tick)・1回の発生数
+     void setShootingStarRate(double chance, int cooldownTicks, int batch) {
+         shootingStars.setSpawnRate(chance, cooldownTicks, batch);
+     }
 
      // overlay状態を一元管理する
      enum OverlayState {
@@ -63,6 +78,8 @@ public class PlanetHUDClock extends JFrame {
          if(overlay != null) {
             overlay.setVisible(overlayState != OverlayState.NONE);
          }
+         // 暗幕は背景が描く
+         root.repaint();
      }
 
      private void showModeSelect() {
@@ -91,8 +108,15 @@ public class PlanetHUDClock extends JFrame {
      }
 
      // ミッション時間（MET）
-     private long missionStartMillis;
-     private double timeScale = 1.0; // ×1, ×10, ×100 など
+     // nanoTime 基準の単調な時計。倍率（×1, ×10, ×100 など任意）変更でも位相を保つ（全画面で共有）
+     private final SimulationClock simClock;
+
+     // 複数画面（--screens）: 先頭の画面がエンジンの tick とタイマーを持ち、他の画面は同じエンジン・時計を表示する。
+     // 時間基準・都市・表示精度は全画面で揃え、レイアウト（天体カタログの screen 列）とパネル操作は画面ごと
+     private final PlanetHUDClock leader;
+     private final List<PlanetHUDClock> screens;
+     private final int screen;
+     private BodyCatalog bodies;
      
      // 世界都市
      record City(String name,ZoneId zone) {}
@@ -118,36 +142,190 @@ public class PlanetHUDClock extends JFrame {
          new City("Sydney", ZoneId.of("Australia/Sydney"))
      };
 
+     // 選択中の都市（UTCオフセットは次の切り替わりまでキャッシュ）
+     private void selectCity(City city) {
+         ZoneOffsetCache offsets = new ZoneOffsetCache(city.zone());
+         for (PlanetHUDClock s : screens) {
+             s.selectedCity = city;
+             s.selectedOffsets = offsets;
+         }
+     }
+
+     private void setTimeBase(TimeBase base) {
+         for (PlanetHUDClock s : screens) {
+             s.timeBase = base;
+         }
+     }
+
 
-     //惑星の自転周期　（地球時間1秒あたり惑星時間が何秒進むか）
-     private static final double MERCURY_ROT = 58.646 * 86400;    // 水星
-     private static final double VENUS_ROT   = -243.018 * 86400;  // 金星（逆向き自転）
-     private static final double EARTH_ROT   = 1.0 * 86400;       // 地球
-     private static final double MOON_ROT    = 27.32 * 86400;     // 月
-     private static final double MARS_ROT    = 1.025957 * 86400;  // 火星
-     private static final double JUPITER_ROT = 0.41 * 86400;      // 木星
-     private static final double SATURN_ROT  = 0.44 * 86400;      // 土星
-     private static final double URANUS_ROT  = -0.72 * 86400;     // 天王星 （横倒し+逆向き自転）
-     private static final double NEPTUNE_ROT = 0.67 * 86400;      // 海王星
-
-     private HUDClockLabel mercuryClock;
-     private HUDClockLabel venusClock;
-     private HUDClockLabel earthClock;
-     private HUDClockLabel moonClock;
-     private HUDClockLabel marsClock;
-     private HUDClockLabel jupiterClock;
-     private HUDClockLabel saturnClock;
-     private HUDClockLabel uranusClock;
-     private HUDClockLabel neptuneClock;
+     // 時計の表示精度
+     private TimeFormatter timeFormatter = new TimeFormatter(TimeFormatter.Precision.CENTISECONDS);
 
+     void setClockPrecision(TimeFormatter.Precision precision) {
+         TimeFormatter formatter = new TimeFormatter(precision);
+         for (PlanetHUDClock s : screens) {
+             s.timeFormatter = formatter;
+         }
+         updateClocks();
+     }
+
+     // 全天体の時刻を一括計算するエンジン（天体カタログの再読み込み時は丸ごと差し替える）
+     private volatile PlanetTimeEngine engine;
+     private final List<HUDClockLabel> clocks = new ArrayList<>();
+     private FileWatcher bodiesWatcher;
+
+     // EDT 上で呼ぶ。組み立て済みのエンジンに差し替え、この画面に出す天体の時計を作り直す
+     private void applyBodies(BodyCatalog catalog, PlanetTimeEngine next) {
+         for (HUDClockLabel clock : clocks) {
+             if (scene != null) scene.remove(clock); else root.remove(clock);
+         }
+         clocks.clear();
+
+         next.tick(getEarthSeconds());
+         engine = next;
+         bodies = catalog;
+
+         boolean gridShown = worldGrid != null && worldGrid.isVisible();
+         for (int i = 0; i < catalog.size(); i++) {
+             if (!catalog.onHUD(i) || catalog.screen(i) != screen) continue;
+             HUDClockLabel clock = new HUDClockLabel(i, catalog.x(i), catalog.y(i), 200, 80);
+             clock.setVisible(!gridShown);
+             if (scene != null) {
+                 scene.add(clock, HUDScene.LAYER_HUD);
+             } else {
+                 root.add(clock, clocks.size());   // 時計は HUD の前面側に置く
+             }
+             clocks.add(clock);
+         }
+
+         if (worldGrid != null) worldGrid.bodiesChanged();
+         updateClocks();
+         root.revalidate();
+         if (background != null) background.invalidateChrome();
+         scheduler.markAllDirty();
+     }
+
+     // 天体カタログをファイルから読み込み、以後は変更を監視して差し替える
+     void loadBodies(java.nio.file.Path file) throws java.io.IOException {
+         BodyCatalog catalog = BodyCatalog.load(file);
+         applyBodiesToAll(catalog, PlanetTimeEngine.of(catalog));
+
+         if (bodiesWatcher != null) bodiesWatcher.close();
+         bodiesWatcher = new FileWatcher(file, () -> {
+             // 読み込みとエンジンの組み立ては監視スレッドで行い、EDT では差し替えだけ
+             try {
+                 BodyCatalog next = BodyCatalog.load(file);
+                 PlanetTimeEngine nextEngine = PlanetTimeEngine.of(next);
+                 SwingUtilities.invokeLater(() -> applyBodiesToAll(next, nextEngine));
+             } catch (java.io.IOException | IllegalArgumentException e) {
+                 // 書きかけ・誤記は無視して前のカタログのまま
+                 System.err.println("bodies: " + e.getMessage());
+             }
+         }).start();
+     }
+
+
+     private void applyBodiesToAll(BodyCatalog catalog, PlanetTimeEngine next) {
+         for (PlanetHUDClock s : screens) {
+             s.applyBodies(catalog, next);
+         }
+     }
 
      public PlanetHUDClock() {
-         setTitle("Planet HUD Clocks");
+         this(null);
+     }
+
+     // leader が null なら先頭の画面、そうでなければ leader と時刻・エンジンを共有する追加の画面
+     private PlanetHUDClock(PlanetHUDClock leader) {
+         this.leader = leader == null ? this : leader;
+         this.screens = leader == null ? new ArrayList<>() : leader.screens;
+         this.screen = screens.size();
+         screens.add(this);
+
+         simClock = leader == null ? new SimulationClock() : leader.simClock;
+         diagnostics = leader == null ? new Diagnostics() : leader.diagnostics;
+         if (leader != null) {
+             timeBase = leader.timeBase;
+             selectedCity = leader.selectedCity;
+             selectedOffsets = leader.selectedOffsets;
+             timeFormatter = leader.timeFormatter;
+         }
 
          // スケーリング対応パネル
          ScaledPanel bg = new ScaledPanel();
          bg.setLayout(null);
-         setContentPane(bg);
+         root = bg;
+
+         // 差分描画スケジューラ
+         scheduler = new FrameScheduler(bg);
+
+         // Mキーで流星群
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke('m'), "meteorShower");
+         bg.getActionMap().put("meteorShower", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 meteorShower(1000);
+             }
+         });
+
+         // Pキーで一時停止／再開、+ / - キーで倍率を2倍／半分
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke('p'), "togglePause");
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke('+'), "fasterClock");
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke('-'), "slowerClock");
+         bg.getActionMap().put("togglePause", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 if (leader.replay != null) {
+                     leader.setReplaySpeed(leader.replaySpeed, !leader.replayPaused);
+                 } else {
+                     togglePause();
+                 }
+             }
+         });
+         bg.getActionMap().put("fasterClock", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 if (leader.replay != null) {
+                     leader.setReplaySpeed(leader.replaySpeed * 2, leader.replayPaused);
+                 } else {
+                     setTimeScale(simClock.rate() * 2);
+                 }
+             }
+         });
+         bg.getActionMap().put("slowerClock", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 if (leader.replay != null) {
+                     leader.setReplaySpeed(leader.replaySpeed / 2, leader.replayPaused);
+                 } else {
+                     setTimeScale(simClock.rate() / 2);
+                 }
+             }
+         });
+
+         // Gキーで全都市グリッド
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke('g'), "toggleWorldGrid");
+         bg.getActionMap().put("toggleWorldGrid", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 showWorldGrid(!worldGrid.isVisible());
+             }
+         });
+
+         // F3キーで計測パネル
+         bg.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+           .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleDiagnostics");
+         bg.getActionMap().put("toggleDiagnostics", new AbstractAction() {
+             @Override
+             public void actionPerformed(ActionEvent e) {
+                 toggleDiagnostics();
+             }
+         });
 
          // 背景クリックで選択パネルを閉じる
          bg.addMouseListener(new MouseAdapter() {
@@ -167,55 +345,69 @@ public class PlanetHUDClock extends JFrame {
                       hideAllOverlay();
                   }
 
+                  backgroundPressed(p.x / baseScale());
                }
            });
+         bg.addMouseMotionListener(new MouseMotionAdapter() {
+              @Override
+              public void mouseDragged(MouseEvent e) {
+                  backgroundDragged(e.getX() / baseScale());
+              }
+           });
          
-         // HUD風時計を生成
-         mercuryClock = new HUDClockLabel("Mercury", 160, 400, 200, 80);
-         venusClock   = new HUDClockLabel("Venus",   300, 335, 200, 80);
-         earthClock   = new HUDClockLabel("Earth",   420, 700, 200, 80);
-         moonClock    = new HUDClockLabel("Moon",    490, 310, 200, 80);
-         marsClock    = new HUDClockLabel("Mars",    580, 380, 200, 80);
-         jupiterClock = new HUDClockLabel("Jupiter", 900, 330, 200, 80);
-         saturnClock  = new HUDClockLabel("Saturn", 1230, 360, 200, 80);
-         uranusClock  = new HUDClockLabel("Uranus", 1500, 360, 200, 80);
-         neptuneClock = new HUDClockLabel("Neptune",1700, 360, 200, 80);
-         
-
-         // HUD追加
-         bg.add(mercuryClock);
-         bg.add(venusClock);
-         bg.add(earthClock);
-         bg.add(moonClock);
-         bg.add(marsClock);
-         bg.add(jupiterClock);
-         bg.add(saturnClock);
-         bg.add(uranusClock);
-         bg.add(neptuneClock);
+         // HUD風時計を生成（先頭の画面は既定の天体カタログ、追加の画面は先頭と同じカタログ・エンジン）
+         if (leader == null) {
+             BodyCatalog catalog = BodyCatalog.defaults();
+             applyBodies(catalog, PlanetTimeEngine.of(catalog));
+         } else {
+             applyBodies(leader.bodies, leader.engine);
+         }
 
          // オーバーレイ追加
          overlay = new HUDOverlay();
          bg.add(overlay);
 
          // 背景画像パネル
-         BackgroundPanel back = new BackgroundPanel("/background2.jpg");
-         bg.add(back);
-         bg.setBackgroundPanel(back);
-
-
-         // 時間初期化
-         missionStartMillis = System.currentTimeMillis();
-         
-         // 時間更新タイマー
-         Timer timer = new Timer(100, e -> updateClocks());
-         timer.start();
-
-         // 描画・エフェクト用タイマー（約60fps)
-         Timer renderTimer = new Timer(16, e -> {
-             updateShootingStars();
-             repaint();
-         });
-         renderTimer.start();
+         background = new BackgroundPanel("/background2.jpg");
+         bg.add(background);
+         bg.setBackgroundPanel(background);
+
+
+         // タイマーは先頭の画面だけが持ち、全画面をまとめて進める
+         if (leader == null) {
+             // 時計の更新は次の締め切りに合わせて張り直す単発タイマー
+             frameNanos = 1_000_000_000L / displayRefreshRate();
+             clockTimer = new Timer(0, e -> clockTick());
+             clockTimer.setRepeats(false);
+
+             // 時間初期化
+             simClock.reset();
+             updateClocks();
+
+             // 描画・エフェクト用タイマー（約60fps)
+             // 変化した領域だけを描画し、何も無ければ描画しない
+             renderTimer = new Timer(16, e -> {
+                 diagnostics.renderTick(16_000_000L);
+                 for (PlanetHUDClock s : screens) {
+                     s.updateShootingStars();
+                 }
+
+                 // ドラッグで溜まったスクラブ位置はフレームごとに1回だけ計算する
+                 if (scrubPending) {
+                     applyScrub();
+                 }
+
+                 long t0 = System.nanoTime();
+                 boolean painted = false;
+                 for (PlanetHUDClock s : screens) {
+                     painted |= s.scheduler.flush();
+                 }
+                 if (painted) {
+                     diagnostics.framePainted(System.nanoTime() - t0);
+                 }
+             });
+             renderTimer.start();
+         }
 
          selectPanel = new HUDSelectPanel(20, 140, 300, 320);
          bg.add(selectPanel);
@@ -233,143 +425,881 @@ public class PlanetHUDClock extends JFrame {
 
         bg.add(timeButton);
 
-        HUDStatusLabel status = new HUDStatusLabel(
+        statusLabel = new HUDStatusLabel(
             20, 80, 260, 60,
             this::getStatusLines
         );
-        bg.add(status);
+        bg.add(statusLabel);
         timeButton.setText(getTimeButtonLabel());
+
+        // 全都市グリッド（既定は WORLD_CITIES）
+        worldGrid = new HUDWorldGrid(20, 150, 1880, 910);
+        worldGrid.setCities(WORLD_CITIES);
+        bg.add(worldGrid);
+
+        gridButton = new HUDButton(
+            "WORLD GRID",
+            290, 20, 180, 48,
+            () -> showWorldGrid(!worldGrid.isVisible())
+        );
+        bg.add(gridButton);
+
+        // スクラブ用スライダー（SCRUB の時だけ表示）
+        scrubBar = new HUDScrubBar(480, 990, 960, 64);
+        scrubBar.setVisible(timeBase == TimeBase.SCRUB);
+        bg.add(scrubBar);
+
+        // 計測パネル（表示中のみ毎秒更新）
+        diagnosticsLabel = new HUDStatusLabel(
+            20, 940, 420, 120,
+            diagnostics::lines
+        );
+        diagnosticsLabel.setVisible(false);
+        bg.add(diagnosticsLabel);
+
+        // 追加の画面は先頭の画面の描画方式に合わせる
+        if (leader != null && leader.scene != null) {
+            enableScene();
+        }
+     }
+
+     // 計測パネルの表示切り替え（F3）
+     private void toggleDiagnostics() {
+         diagnosticsLabel.setVisible(!diagnosticsLabel.isVisible());
+         leader.updateDiagnostics();
+         chromeChanged();
+         publishFrame();
+     }
+
+     // EDT の計測とパネルの毎秒更新は、どこかの画面で計測パネルを表示している間か --metrics の時だけ動かす（先頭の画面が持つ）
+     private Timer diagnosticsTimer;
+     private boolean metricsExport;
+
+     private void updateDiagnostics() {
+         boolean shown = false;
+         for (PlanetHUDClock s : screens) {
+             shown |= s.diagnosticsLabel.isVisible();
+         }
+         if (shown || metricsExport) {
+             diagnostics.start();
+         } else {
+             diagnostics.stop();
+         }
+
+         if (shown && diagnosticsTimer == null) {
+             diagnosticsTimer = new Timer(1000, e -> {
+                 for (PlanetHUDClock s : screens) {
+                     if (s.diagnosticsLabel.isVisible()) s.markDirty(s.diagnosticsLabel);
+                 }
+             });
+             diagnosticsTimer.start();
+         } else if (!shown && diagnosticsTimer != null) {
+             diagnosticsTimer.stop();
+             diagnosticsTimer = null;
+         }
+     }
+
+     // ▼ 保持モード描画（--retained）
+     // 時計・ボタン・ステータス・計測・モード選択・暗幕を Swing の部品階層から外し、シーングラフの節点として描く。
+     // 文字入力・スクロールを持つ都市選択パネルと全都市グリッドは部品のままシーンの前面に置く
+     private HUDScene scene;
+
+     void useRetainedRendering() {
+         for (PlanetHUDClock s : screens) {
+             s.enableScene();
+         }
+     }
+
+     private void enableScene() {
+         if (scene != null) return;
+         scene = new HUDScene(scheduler);
+         moveToScene(overlay, HUDScene.LAYER_BACK);
+         for (HUDClockLabel clock : clocks) {
+             moveToScene(clock, HUDScene.LAYER_HUD);
+         }
+         moveToScene(timeButton, HUDScene.LAYER_HUD);
+         moveToScene(statusLabel, HUDScene.LAYER_HUD);
+         moveToScene(gridButton, HUDScene.LAYER_HUD);
+         moveToScene(scrubBar, HUDScene.LAYER_HUD);
+         moveToScene(diagnosticsLabel, HUDScene.LAYER_HUD);
+         moveToScene(selectPanel, HUDScene.LAYER_FRONT);
+
+         // どの節点にも当たらないクリックで選択パネルを閉じる
+         scene.setOnBackgroundPressed(x -> {
+             if (overlayState != OverlayState.NONE) hideAllOverlay();
+             backgroundPressed(x);
+         });
+         scene.setOnBackgroundDragged(this::backgroundDragged);
+
+         // 部品は前から 都市選択・グリッド・シーン・背景 の4つだけ（以後並べ替えない）
+         JComponent view = scene.view();
+         root.add(view);
+         root.setComponentZOrder(citySelectPanel, 0);
+         root.setComponentZOrder(worldGrid, 1);
+         root.setComponentZOrder(view, 2);
+         root.setComponentZOrder(background, 3);
+         root.revalidate();
+         chromeChanged();
+     }
+
+     private <T extends JComponent & HUDScene.Node> void moveToScene(T c, int layer) {
+         root.remove(c);
+         scene.add(c, layer);
+     }
+
+     // ▼ 背景に焼き込む装飾
+     // 時計のパネルと天体名・ボタン・ステータスの地は普段は変化しないので、背景と一緒に1枚の不透明画像へ描いておき、
+     // 時計の再描画は不透明な転送と数字だけにする。サイズ・hover・ボタンの文字・表示する要素が変わった時だけ描き直す
+     private void paintChrome(Graphics2D g2) {
+         if (scene != null) {
+             double s = scene.scale();
+             g2.scale(s, s);
+         }
+         for (HUDClockLabel clock : clocks) {
+             paintChrome(g2, clock);
+         }
+         paintChrome(g2, timeButton);
+         paintChrome(g2, gridButton);
+         paintChrome(g2, statusLabel);
+         paintChrome(g2, diagnosticsLabel);
+     }
+
+     private void paintChrome(Graphics2D g2, JComponent c) {
+         if (c == null || !c.isVisible()) return;
+         ChromeComponent cc = (ChromeComponent) c;
+         if (scene != null) {
+             g2.translate(cc.baseX(), cc.baseY());
+             cc.paintChrome(g2, cc.baseW(), cc.baseH());
+             g2.translate(-cc.baseX(), -cc.baseY());
+         } else {
+             g2.translate(c.getX(), c.getY());
+             cc.paintChrome(g2, c.getWidth(), c.getHeight());
+             g2.translate(-c.getX(), -c.getY());
+         }
+     }
+
+     // 装飾を持つ要素の表示・配置が変わった時（全体を描き直す）
+     private void chromeChanged() {
+         if (background == null) return;
+         background.invalidateChrome();
+         root.repaint();
+     }
+
+     // 1つの要素の装飾が変わった時（hover・文字）
+     private void chromeChanged(JComponent c) {
+         if (background == null) return;
+         if (scene != null) {
+             ScalableComponent sc = (ScalableComponent) c;
+             double s = scene.scale();
+             int x0 = (int) Math.floor(sc.baseX() * s) - 1, y0 = (int) Math.floor(sc.baseY() * s) - 1;
+             int x1 = (int) Math.ceil((sc.baseX() + sc.baseW()) * s) + 1, y1 = (int) Math.ceil((sc.baseY() + sc.baseH()) * s) + 1;
+             background.invalidateChrome(x0, y0, x1 - x0, y1 - y0);
+             scene.markDirty((HUDScene.Node) c);
+         } else {
+             background.invalidateChrome(c.getX(), c.getY(), c.getWidth(), c.getHeight());
+             c.repaint();
+         }
+     }
+
+     // HUD 要素の全体を再描画対象にする（シーンの節点ならビュー上の矩形に変換）
+     private void markDirty(JComponent c) {
+         if (scene != null && c instanceof HUDScene.Node n) {
+             scene.markDirty(n);
+         } else {
+             scheduler.markDirty(c);
+         }
+     }
+
+     // 画面を1つ追加する（先頭の画面に対して呼ぶ。時刻・エンジン・背景・グリフは共有）
+     PlanetHUDClock addScreen() {
+         return new PlanetHUDClock(leader);
+     }
+
+     // 全都市グリッドの表示切り替え（表示中は個別の時計を隠す）
+     void showWorldGrid(boolean show) {
+         worldGrid.setVisible(show);
+         for (HUDClockLabel clock : clocks) {
+             clock.setVisible(!show);
+         }
+         root.revalidate();
+         if (show) {
+             worldGrid.refresh();
+         }
+         chromeChanged();
+         updateClocks();   // グリッド表示中は全体更新を細かくする
+     }
+
+     // グリッドに表示する都市（all なら都市カタログの全件）
+     void setWorldGridCities(String spec) {
+         if (spec.equals("all")) {
+             worldGrid.setCities(CityCatalog.get(WORLD_CITIES).cities());
+         } else {
+             worldGrid.setCities(WORLD_CITIES);
+         }
+     }
+
+     // 終了時に計測結果をファイルへ出力（.json / .csv）
+     void exportMetricsOnExit(java.nio.file.Path path) {
+         leader.metricsExport = true;
+         leader.updateDiagnostics();
+         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+             try {
+                 diagnostics.export(path);
+             } catch (java.io.IOException e) {
+                 e.printStackTrace();
+             }
+         }, "metrics-export"));
+     }
+
+     JComponent getRoot() {
+         return root;
+     }
+
+     // HUDを載せたウィンドウを生成
+     JFrame createWindow() {
+         return createWindow(null);
+     }
+
+     // 指定した画面（GraphicsDevice の構成）にウィンドウを作る
+     JFrame createWindow(GraphicsConfiguration gc) {
+         String title = screen == 0 ? "Planet HUD Clocks" : "Planet HUD Clocks [" + screen + "]";
+         JFrame frame = new JFrame(title, gc);
+         frame.setContentPane(root);
+         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+         return frame;
+     }
+
+     // アクティブ描画のウィンドウ（Swing の再描画は使わず、描画スレッドが Canvas へ直接描く）
+     // 表示専用でパネル・メニューは出さない。操作はキーのみ（M / P / + / - / F3）
+     JFrame createActiveWindow() {
+         JFrame frame = new JFrame("Planet HUD Clocks");
+         Canvas canvas = new Canvas();
+         canvas.setIgnoreRepaint(true);
+         canvas.setBackground(Color.BLACK);
+         canvas.setFocusable(true);
+         canvas.addKeyListener(new KeyAdapter() {
+             @Override
+             public void keyTyped(KeyEvent e) {
+                 switch (e.getKeyChar()) {
+                     case 'm' -> meteorShower(1000);
+                     case 'p' -> togglePause();
+                     case '+' -> setTimeScale(simClock.rate() * 2);
+                     case '-' -> setTimeScale(simClock.rate() / 2);
+                     default  -> { }
+                 }
+             }
+
+             @Override
+             public void keyPressed(KeyEvent e) {
+                 if (e.getKeyCode() == KeyEvent.VK_F3) {
+                     toggleDiagnostics();
+                 }
+             }
+         });
+         frame.setIgnoreRepaint(true);
+         frame.add(canvas);
+         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+         // 16ms の描画タイマーは止め、流れ星も描画スレッドで進める
+         renderTimer.stop();
+         activeRenderer = new ActiveRenderer(canvas, shootingStars, diagnostics);
+         publishFrame();
+         return frame;
+     }
+
+     // ウィンドウ表示後に呼ぶ（BufferStrategy は表示中の Canvas にしか作れない）
+     void startActiveRendering() {
+         activeRenderer.start();
+     }
+
+     // アクティブ描画へ渡す表示状態（EDT 上で作る不変スナップショット）
+     private void publishFrame() {
+         if (activeRenderer == null) return;
+
+         List<ActiveRenderer.Clock> shown = new ArrayList<>(clocks.size());
+         for (HUDClockLabel clock : clocks) {
+             if (clock.isVisible()) shown.add(clock.snapshot());
+         }
+
+         List<ActiveRenderer.Panel> panels = new ArrayList<>(4);
+         panels.add(timeButton.snapshot());
+         panels.add(gridButton.snapshot());
+         panels.add(statusLabel.snapshot());
+         if (diagnosticsLabel.isVisible()) panels.add(diagnosticsLabel.snapshot());
+
+         activeRenderer.publish(new ActiveRenderer.Snapshot(
+             shown.toArray(new ActiveRenderer.Clock[0]),
+             panels.toArray(new ActiveRenderer.Panel[0]),
+             background.image()));
      }
 
 private HUDSelectPanel selectPanel;
+private HUDStatusLabel statusLabel;
+private HUDButton gridButton;
+private BackgroundPanel background;
 
 private void updateTimeScale() {
     switch (timeBase) {
-        case SIM_X1   -> timeScale = 1.0;
-        case SIM_X10  -> timeScale = 10.0;
-        case SIM_X100 -> timeScale = 100.0;
-        default       -> timeScale = 1.0;
+        case SIM_X1   -> simClock.setRate(1.0);
+        case SIM_X10  -> simClock.setRate(10.0);
+        case SIM_X100 -> simClock.setRate(100.0);
+        default       -> { }
+    }
+}
+
+// 任意倍率（プリセット以外）
+void setTimeScale(double scale) {
+    simClock.setRate(scale);
+    recordEvent(SessionRecorder.RATE);
+    onTimeChanged();
+}
+
+// 地方平均太陽時の表示に切り替え
+void useSolarTime() {
+    setTimeBase(TimeBase.SOLAR);
+    onTimeChanged();
+}
+
+void togglePause() {
+    if (simClock.isPaused()) {
+        simClock.resume();
+    } else {
+        simClock.pause();
+    }
+    recordEvent(SessionRecorder.RATE);
+    onTimeChanged();
+}
+
+// 時間設定の変更を全画面の表示へ反映
+private void onTimeChanged() {
+    updateClocks();
+    for (PlanetHUDClock s : screens) {
+        s.timeButton.setText(s.getTimeButtonLabel());
+        s.scrubBar.setVisible(timeBase == TimeBase.SCRUB);
+        s.root.repaint();
+    }
+    if (leader.clockSync != null) {
+        leader.clockSync.modeChanged(syncMode());
     }
 }
 
-// 流れ星
-class ShootingStar {
-    float x, y;
-    float vx, vy;
-    int life;
-    int maxLife;
+// 複数プロセスの時計同期（--sync-master / --sync-follow 指定時のみ）
+private ClockSync clockSync;
 
-    ShootingStar(int w, int h) {
-        // 画面外から出現
-        x = (float)(Math.random() * w);
-        y = -50;
+private ClockSync.Mode syncMode() {
+    return new ClockSync.Mode(timeBase.ordinal(), selectedCity.name(), selectedCity.zone().getId());
+}
 
-       vx = -6f - (float)Math.random() * 4f;
-       vy = 6f + (float)Math.random() * 4f;
+// MET・倍率・モードを送る側
+void startSyncMaster(List<java.net.InetSocketAddress> targets) throws java.io.IOException {
+    clockSync = ClockSync.master(simClock, targets, syncMode());
+}
 
-       maxLife = 40 + (int)(Math.random() * 20);
-       life = maxLife;
+// 送られてくる MET に合わせる側（モードと都市も追従する）
+void startSyncFollower(java.net.InetSocketAddress address) throws java.io.IOException {
+    clockSync = ClockSync.follower(simClock, address,
+        mode -> SwingUtilities.invokeLater(() -> applySyncMode(mode)));
+}
+
+// EDT 上で。マスターのモードと違う時だけ切り替える
+private void applySyncMode(ClockSync.Mode mode) {
+    TimeBase[] bases = TimeBase.values();
+    if (mode.timeBase() < 0 || mode.timeBase() >= bases.length) return;
+
+    City city = selectedCity;
+    if (!mode.zoneId().equals(city.zone().getId()) || !mode.cityName().equals(city.name())) {
+        try {
+            city = new City(mode.cityName(), ZoneId.of(mode.zoneId()));
+        } catch (DateTimeException e) {
+            return;
+        }
     }
+    if (bases[mode.timeBase()] == timeBase && city == selectedCity) return;
+
+    setTimeBase(bases[mode.timeBase()]);
+    if (city != selectedCity) selectCity(city);
+    recordEvent(SessionRecorder.MODE);
+    onTimeChanged();
+}
+
+// ▼ セッションの記録と再生（--record / --replay）
+// 記録中は時計を計算するたびに、エンジンへ与えた地球側の秒と表示の状態（時間基準・倍率・都市）を1レコード追記する。
+// 再生中は締め切り駆動の更新を止め、フレームごとに再生位置のレコードを引いて、その入力と状態をそのまま表示に与える
+private SessionRecorder recorder;
+private SessionReplay replay;
+private Timer replayTimer;
+private long replayFrom;          // 再生位置（記録開始からのナノ秒）の起点
+private long replayStarted;       // 起点を決めた時の nanoTime
+private double replaySpeed = 1.0;
+private boolean replayPaused;
+
+void startRecording(java.nio.file.Path dir) throws java.io.IOException {
+    recorder = SessionRecorder.create(dir);
+    record(SessionRecorder.START, earthBase());
+    Runtime.getRuntime().addShutdownHook(new Thread(recorder::close, "session-recorder"));
+}
+
+// 表示の状態と一緒に1レコード書く
+private void record(byte type, double base) {
+    SessionRecorder r = leader.recorder;
+    if (r == null) return;
+    r.record(type, base, timeBase.ordinal(), simClock.rate(), simClock.isPaused(), solarPath(),
+             selectedCity.name(), selectedCity.zone().getId());
+}
+
+// モード・都市・倍率の切り替え（状態を変えた直後に呼ぶ）
+private void recordEvent(byte type) {
+    if (leader.recorder != null) record(type, earthBase());
+}
+
+// 記録開始から fromSeconds 秒の位置から speed 倍で再生する
+void startReplay(java.nio.file.Path dir, double fromSeconds, double speed) throws java.io.IOException {
+    replay = SessionReplay.open(dir);
+    long from = (long) (fromSeconds * 1e9);
+    replay.seek(replay.floor(from));
+    replayFrom = from;
+    replayStarted = System.nanoTime();
+    replaySpeed = speed;
+
+    if (clockTimer != null) clockTimer.stop();
+    replayTimer = new Timer((int) Math.max(1, frameNanos / 1_000_000L), e -> replayTick());
+    replayTimer.start();
+    replayTick();
+}
 
-    void update() {
-        x += vx;
-        y += vy;
-        life--;
+// 現在の再生位置（記録開始からのナノ秒）
+private long replayPosition() {
+    if (replayPaused) return replayFrom;
+    return replayFrom + (long) ((System.nanoTime() - replayStarted) * replaySpeed);
+}
+
+// P / + / - で再生の一時停止と速さを変える（今の位置を起点にし直す）
+private void setReplaySpeed(double speed, boolean paused) {
+    replayFrom = replayPosition();
+    replayStarted = System.nanoTime();
+    replaySpeed = speed;
+    replayPaused = paused;
+}
+
+private void replayTick() {
+    try {
+        if (replay.advance(replayPosition())) applyReplay();
+    } catch (java.io.IOException e) {
+        System.err.println("replay: " + e.getMessage());
+        replayTimer.stop();
+        return;
+    }
+    if (replay.atEnd()) {
+        replayTimer.stop();
+        System.err.println("replay: end of session");
+    }
+}
+
+// 再生位置のレコードの状態に合わせ、記録された入力で時計を計算し直す
+private void applyReplay() {
+    TimeBase[] bases = TimeBase.values();
+    int tb = replay.timeBase();
+    TimeBase base = tb >= 0 && tb < bases.length ? bases[tb] : timeBase;
+
+    City city = selectedCity;
+    String[] c = replay.city();
+    if (c != null && (!c[0].equals(city.name()) || !c[1].equals(city.zone().getId()))) {
+        try {
+            city = new City(c[0], ZoneId.of(c[1]));
+        } catch (DateTimeException e) {
+            // 知らないゾーンなら都市はそのまま
+        }
+    }
+    boolean rateChanged = simClock.rate() != replay.rate() || simClock.isPaused() != replay.paused();
+    if (base == TimeBase.SCRUB) leader.scrubSolar = replay.solar();
+    if (base == timeBase && city == selectedCity && !rateChanged) {
+        updateClocks();
+        return;
     }
 
-    boolean isAlive() {
-       return life > 0;
+    setTimeBase(base);
+    if (city != selectedCity) selectCity(city);
+    if (rateChanged) {
+        simClock.setRate(replay.rate());
+        if (replay.paused()) simClock.pause(); else simClock.resume();
     }
+    onTimeChanged();
+}
 
-    void draw(Graphics2D g2) {
-       float alpha = life / (float) maxLife;
+// 表示に使う壁時計（再生中は記録した時点）
+private long wallMillis() {
+    SessionReplay r = leader.replay;
+    return r != null && r.position() >= 0 ? r.wallMillis() : System.currentTimeMillis();
+}
 
-       Composite old = g2.getComposite();
-       g2.setComposite(
-          AlphaComposite.getInstance(
-              AlphaComposite.SRC_OVER,          
-              alpha
-          )
-       );
+// エンジンへ与える地球側の秒（SOLAR は J2000 からの秒、再生中は記録した値）
+private double earthBase() {
+    SessionReplay r = leader.replay;
+    if (r != null && r.position() >= 0) return r.earthSeconds();
+    return timeBase == TimeBase.SOLAR ? SolarTime.j2000Seconds(System.currentTimeMillis()) : getEarthSeconds();
+}
 
-       g2.setStroke(new BasicStroke(2f));
-       g2.setColor(Color.WHITE);
+// ▼ スクラブ（SCRUB）
+// 地球側の時刻を、入った時点の値から前後に最大 SCRUB_RANGE 秒まで動かして全天体の時刻を見る。
+// つまみの位置 p（-1..1）を3乗して秒へ写すので、中央付近は分・時間単位、端では年単位で動く。
+// ドラッグのイベントは位置を覚えるだけにして、計算し直すのは描画タイマーのフレームごとに1回（先頭の画面が持つ）
+// SOLAR から入った時は J2000 からの秒を動かして地方平均太陽時のまま計算する（入った瞬間に表示が飛ばないように）
+private static final double SCRUB_RANGE = 10 * 365.25 * 86400.0;   // 10年
+private static final double SCRUB_DRAG_WIDTH = 960.0;               // 背景をこの幅（基準座標）ドラッグすると p が 1 動く
+
+private double scrubAnchor;
+private boolean scrubSolar;     // SOLAR から入った（scrubAnchor は J2000 からの秒）
+private double scrubPosition;
+private boolean scrubPending;
+private HUDScrubBar scrubBar;
+private double dragStartX, dragStartPosition;
+
+// SCRUB に入る直前に呼ぶ（今表示している地球側の時刻から始める）
+private void startScrub() {
+    leader.scrubAnchor = earthBase();
+    leader.scrubSolar = solarPath();
+    leader.scrubPosition = 0;
+}
 
-       // 尾
-       g2.drawLine(
-           (int)x,
-           (int)y,
-           (int)(x - vx * 4),
-           (int)(y - vy * 4)
-       );
+// 地方平均太陽時で計算するか（SOLAR と、SOLAR から入った SCRUB）
+private boolean solarPath() {
+    return timeBase == TimeBase.SOLAR || (timeBase == TimeBase.SCRUB && leader.scrubSolar);
+}
 
-       g2.setComposite(old);
+private double scrubOffset() {
+    double p = scrubPosition;
+    return p * p * p * SCRUB_RANGE;
+}
+
+// 入った時点からのずれ（±日 時:分:秒）
+private String scrubLabel() {
+    double offset = leader.scrubOffset();
+    long s = Math.round(Math.abs(offset));
+    return String.format("%s%dd %02d:%02d:%02d",
+        offset < 0 ? "-" : "+", s / 86400, s / 3600 % 24, s / 60 % 60, s % 60);
+}
+
+// ドラッグ・スライダーから（次のフレームで反映）
+private void setScrubPosition(double p) {
+    p = Math.max(-1.0, Math.min(1.0, p));
+    if (p == leader.scrubPosition) return;
+    leader.scrubPosition = p;
+    leader.scrubPending = true;
+}
+
+// 描画タイマーから、フレームを描く直前に呼ぶ
+private void applyScrub() {
+    scrubPending = false;
+    if (timeBase != TimeBase.SCRUB) return;
+    updateClocks();
+    for (PlanetHUDClock s : screens) {
+        s.markDirty(s.statusLabel);
+        s.markDirty(s.scrubBar);
     }
 }
 
+// 通常描画での 基準座標 → 画面 の拡大率（ScaledPanel と同じ）
+private double baseScale() {
+    double s = Math.min(root.getWidth() / 1920.0, root.getHeight() / 1080.0);
+    return s > 0 ? s : 1.0;
+}
+
+// 背景の横ドラッグでもスライダーと同じ位置を動かす（x は基準座標）
+private void backgroundPressed(double x) {
+    dragStartX = x;
+    dragStartPosition = leader.scrubPosition;
+}
+
+private void backgroundDragged(double x) {
+    if (timeBase != TimeBase.SCRUB) return;
+    setScrubPosition(dragStartPosition + (x - dragStartX) / SCRUB_DRAG_WIDTH);
+}
+
+// 倍率表示（整数ならそのまま、それ以外は小数2桁）
+private String scaleLabel() {
+    double r = simClock.rate();
+    return r == Math.rint(r) ? String.valueOf((long) r) : String.format("%.2f", r);
+}
 
 // MET(Mission Elapsed Time) を秒で取得
 private double getMETSeconds() {
-    long now = System.currentTimeMillis();
-    return (now - missionStartMillis) / 1000.0 * timeScale;
+    return simClock.metSeconds();
 }
 
 private double getEarthSeconds() {
 
-     if (timeBase != TimeBase.REAL_WORLD) {
+     if (timeBase == TimeBase.SCRUB) {
+         // スクラブ中は入った時点の値からのずれ
+         return leader.scrubAnchor + leader.scrubOffset();
+
+     } else if (timeBase != TimeBase.REAL_WORLD) {
          // ミッション経過時間(MET)
          return getMETSeconds();
 
      } else {
-         // 実世界時間（都市）
-         City c = WORLD_CITIES[selectedCityIndex];
-         ZonedDateTime zt = ZonedDateTime.now(c.zone());
-
-         return zt.toLocalTime().toSecondOfDay()
-              + zt.getNano() / 1_000_000_000.0;
+         // 実世界時間（都市）: オフセットは次の切り替わりまでキャッシュ
+         return selectedOffsets.secondOfDayNow();
      }
 }
 
 private void updateClocks() {
 
-   double earthSeconds = getEarthSeconds();
+   // エンジンの tick は先頭の画面で1回だけ
+   if (leader != this) {
+       leader.updateClocks();
+       return;
+   }
+
+   // 全天体の時間をエンジンで一括計算し、全画面の時計に反映
+   double base = earthBase();
+   if (solarPath()) {
+       engine.tickSolar(base);
+   } else {
+       engine.tick(base);
+   }
+   record(SessionRecorder.TICK, base);
+
+   for (int i = 0; i < screens.size(); i++) {
+       screens.get(i).refreshClocks();
+   }
+
+   if (timeServer != null) {
+       timeServer.publish(snapshotJson());
+   }
+
+   scheduleClocks();
+}
+
+// ▼ 締め切り駆動の時計更新
+// 天体ごとに「表示文字列が次に変わる時刻」を解析的に求めてキューに入れ、最も早い締め切りにだけ起きて
+// その天体だけを計算し直す（×1 の金星は数秒に1回、×100 の地球は毎フレーム）。
+// 起きる間隔は画面のリフレッシュ周期より短くしない。全天体の更新（updateClocks）はモード変更時と、
+// グリッド・HTTP 配信・時計同期のために一定間隔でも行う
+private static final long FULL_TICK_NANOS = 100_000_000L;        // グリッド・配信・同期がある時
+private static final long IDLE_FULL_TICK_NANOS = 1_000_000_000L; // ない時（夏時間・壁時計の補正への追従）
+private static final double MAX_WAIT_SECONDS = 3600.0;
+
+private final DeadlineQueue clockQueue = new DeadlineQueue(16);
+private HUDClockLabel[] labelOf = new HUDClockLabel[0];   // 天体 → 表示している時計
+private Timer clockTimer;
+private long frameNanos;
+private long clockWake;      // 予定した起床時刻
+private long lastWake;
+private long fullTickAt;
+
+private static int displayRefreshRate() {
+    if (GraphicsEnvironment.isHeadless()) return 60;
+    int hz = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                                .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+    return hz > 0 ? hz : 60;
+}
+
+// 全天体の締め切りを立て直す（updateClocks の直後、エンジンは計算済み）
+private void scheduleClocks() {
+    if (clockTimer == null || replay != null) return;
+    long now = System.nanoTime();
+
+    int n = engine.size();
+    if (labelOf.length != n) {
+        labelOf = new HUDClockLabel[n];
+    } else {
+        java.util.Arrays.fill(labelOf, null);
+    }
+
+    clockQueue.clear();
+    double earthSpeed = earthSpeed();
+    for (PlanetHUDClock s : screens) {
+        for (HUDClockLabel clock : s.clocks) {
+            if (clock.index >= n) continue;   // カタログ差し替え中（他の画面が古い時計のまま）
+            labelOf[clock.index] = clock;
+            clockQueue.add(deadlineFor(clock.index, now, earthSpeed), clock.index);
+        }
+    }
+
+    boolean busy = timeServer != null || clockSync != null;
+    for (PlanetHUDClock s : screens) {
+        busy |= s.worldGrid != null && s.worldGrid.isVisible();
+    }
+    fullTickAt = now + (busy ? FULL_TICK_NANOS : IDLE_FULL_TICK_NANOS);
+    armClockTimer(now);
+}
+
+// 地球側の時刻が実時間1秒あたりに進む量
+private double earthSpeed() {
+    return switch (timeBase) {
+        case REAL_WORLD, SOLAR -> 1.0;
+        case SCRUB -> 0.0;
+        default -> simClock.speed();
+    };
+}
+
+// 天体 b の表示が次に変わる時刻（止まっていても上限の時間後には見直す）
+private long deadlineFor(int b, long now, double earthSpeed) {
+    double speed = timeBase == TimeBase.SOLAR ? engine.solarRate(b) : engine.rate(b) * earthSpeed;
+    double wait = Math.min(timeFormatter.secondsUntilChange(engine.time(b), speed), MAX_WAIT_SECONDS);
+    return now + Math.max(1L, (long) Math.ceil(wait * 1e9));
+}
+
+// 締め切りの来た天体だけを計算して時計に反映
+private void clockTick() {
+    long now = System.nanoTime();
+    diagnostics.clockLate(now - clockWake);
+    lastWake = now;
+
+    if (now - fullTickAt >= 0) {
+        updateClocks();
+        return;
+    }
+
+    boolean solar = solarPath();
+    double base = earthBase();
+    double earthSpeed = earthSpeed();
+
+    boolean ticked = false;
+    boolean changed = false;
+    int b;
+    while ((b = clockQueue.pollDue(now)) >= 0) {
+        ticked = true;
+        if (solar) {
+            engine.tickSolarBody(b, base);
+        } else {
+            engine.tickBody(b, base);
+        }
+        HUDClockLabel clock = labelOf[b];
+        if (clock != null) {
+            clock.refresh();
+            changed = true;
+        }
+        clockQueue.add(deadlineFor(b, now, earthSpeed), b);
+    }
+    if (ticked) record(SessionRecorder.TICK, base);
+
+    if (changed) {
+        for (PlanetHUDClock s : screens) {
+            s.publishFrame();
+        }
+    }
+    armClockTimer(now);
+}
+
+// 次の締め切りに起きる（前回の起床から1フレーム以上空ける）
+private void armClockTimer(long now) {
+    long next = Math.min(clockQueue.peekDeadline(), fullTickAt);
+    next = Math.max(next, lastWake + frameNanos);
+    clockWake = next;
+
+    long delayMillis = Math.max(0, (next - now + 999_999) / 1_000_000);
+    clockTimer.setInitialDelay((int) Math.min(delayMillis, Integer.MAX_VALUE));
+    clockTimer.restart();
+}
+
+// この画面の時計を計算済みのエンジンの値で更新
+private void refreshClocks() {
+   for (int i = 0; i < clocks.size(); i++) {
+       clocks.get(i).refresh();
+   }
+
+   if (worldGrid != null && worldGrid.isVisible()) {
+       worldGrid.refresh();
+   }
+
+   publishFrame();
+}
 
+// ローカル HTTP 配信（--serve 指定時のみ）
+private PlanetTimeServer timeServer;
+private final StringBuilder snapshotText = new StringBuilder(1024);
+private final char[] snapshotChars = new char[TimeFormatter.MAX_LENGTH];
+private long snapshotTick;
+
+int startServer(int port) throws java.io.IOException {
+    timeServer = new PlanetTimeServer(port).start();
+    updateClocks();
+    return timeServer.port();
+}
 
-   // 各惑星の時間を計算してセット
-   mercuryClock.setTime(earthSeconds * (86400 / MERCURY_ROT) );
-   venusClock.setTime(earthSeconds * (86400 / VENUS_ROT) );
-   earthClock.setTime(earthSeconds );
-   moonClock.setTime(earthSeconds * (86400 / MOON_ROT) );
-   marsClock.setTime(earthSeconds * (86400 / MARS_ROT) );
-   jupiterClock.setTime(earthSeconds * (86400 / JUPITER_ROT) );
-   saturnClock.setTime(earthSeconds * (86400 / SATURN_ROT) );
-   uranusClock.setTime(earthSeconds * (86400 / URANUS_ROT) );
-   neptuneClock.setTime(earthSeconds * (86400 / NEPTUNE_ROT) );
+// 直近 tick の時刻を JSON に（EDT 上で tick ごとに1回だけ作る）
+private byte[] snapshotJson() {
+    PlanetTimeEngine e = engine;
+    StringBuilder sb = snapshotText;
+    sb.setLength(0);
+    sb.append("{\"tick\":").append(++snapshotTick)
+      .append(",\"epochMillis\":").append(System.currentTimeMillis())
+      .append(",\"timeBase\":\"").append(timeBase.name()).append('"')
+      .append(",\"rate\":").append(simClock.rate())
+      .append(",\"paused\":").append(simClock.isPaused())
+      .append(",\"met\":").append(getMETSeconds())
+      .append(",\"city\":{\"name\":");
+    appendJsonString(sb, selectedCity.name());
+    sb.append(",\"zone\":");
+    appendJsonString(sb, selectedCity.zone().getId());
+    sb.append("},\"bodies\":[");
+    for (int i = 0; i < e.size(); i++) {
+        if (i > 0) sb.append(',');
+        sb.append("{\"name\":");
+        appendJsonString(sb, e.name(i));
+        double t = e.time(i);
+        sb.append(",\"secondOfDay\":").append((t % 86400.0 + 86400.0) % 86400.0).append(",\"time\":\"");
+        int len = timeFormatter.format(t, snapshotChars);
+        sb.append(snapshotChars, 0, len).append("\"}");
+    }
+    sb.append("]}");
+    return sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+}
 
+private static void appendJsonString(StringBuilder sb, String s) {
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c == '"' || c == '\\') {
+            sb.append('\\').append(c);
+        } else if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+        } else {
+            sb.append(c);
+        }
+    }
+    sb.append('"');
 }
 
 private String[] getStatusLines() {
 
     if (timeBase == TimeBase.REAL_WORLD) {
-        City c = WORLD_CITIES[selectedCityIndex];
         return new String[] {
             "MODE : REAL WORLD",
-            "CITY : "+ c.name()
+            "CITY : "+ selectedCity.name()
         };
      }
 
+    if (timeBase == TimeBase.SOLAR) {
+        return new String[] {
+            "MODE : SOLAR TIME",
+            "BASE : UTC (J2000)"
+        };
+    }
+
+    if (timeBase == TimeBase.SCRUB) {
+        return new String[] {
+            leader.scrubSolar ? "MODE : SCRUB (SOLAR)" : "MODE : SCRUB",
+            "OFFSET : " + scrubLabel()
+        };
+    }
+
      return new String[] {
-         "MODE : SIM x" + (int) timeScale,
-         "BASE : MET"
+         "MODE : SIM x" + scaleLabel(),
+         simClock.isPaused() ? "BASE : MET (PAUSED)" : "BASE : MET"
      };
 }
 
 private String getTimeButtonLabel() {
     if (timeBase == TimeBase.REAL_WORLD) {
-        City c = WORLD_CITIES[selectedCityIndex];
-        return  "CITY : " + c.name();
+        return  "CITY : " + selectedCity.name();
+    } else if (timeBase == TimeBase.SOLAR) {
+        return "MODE : SOLAR TIME";
+    } else if (timeBase == TimeBase.SCRUB) {
+        return "MODE : SCRUB";
     } else {
-        return "MODE : SIM x" + (int) timeScale;
+        return "MODE : SIM x" + scaleLabel();
     }
 }
 
@@ -384,6 +1314,14 @@ class ScaledPanel extends JPanel {
        background = p;
     }
 
+    // 背景パネルが全面を塗るので、自身の塗りつぶしは省略
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (background == null) {
+            super.paintComponent(g);
+        }
+    }
+
     @Override
     public void doLayout() {
         double scaleX = getWidth() / (double) BASE_W;
@@ -409,9 +1347,16 @@ class ScaledPanel extends JPanel {
              }
           }
 
-          // 最後に背景を全面配置
+          // 最後に背景を全面配置（HUD の配置が変わったので焼き込んだ装飾も描き直す）
           if (background != null) {
             background.setBounds(0, 0, getWidth(), getHeight());
+            background.invalidateChrome();
+          }
+
+          // 保持モードではシーンを全面に置くだけ（節点の配置は描画時の拡大率で決まる）
+          if (scene != null) {
+              scene.view().setBounds(0, 0, getWidth(), getHeight());
+              return;
           }
 
           // オーバーレイを前面に
@@ -462,39 +1407,152 @@ interface ScalableComponent {
     int baseH();
 }
 
+// 背景に焼き込む変化しない装飾を持つ HUD 要素（w x h は部品のサイズ、保持モードでは基準座標）
+interface ChromeComponent extends ScalableComponent {
+    boolean isVisible();
+    void paintChrome(Graphics2D g2, int w, int h);
+}
+
 // 背景画像パネル
 class BackgroundPanel extends JPanel {
-    private BufferedImage img;
+    private final BackgroundCache cache;   // 元画像と解像度ごとの縮小済み画像（画面間で共有）
+    private BufferedImage scaled;          // 現在のサイズの縮小済み画像
+
+    // 縮小済みの背景に HUD の装飾を焼き込んだ不透明画像（描き直しが要る範囲を溜めておく）
+    // 流れ星は装飾の下、選択中の暗幕は背景と流れ星だけに掛けるので、そのどちらかが掛かる範囲では使わずに順に描く
+    private BufferedImage composite;
+    private BufferedImage compositeSource;
+    private boolean compositeStale = true;
+    private final Rectangle staleRect = new Rectangle();
 
+    // 同じリソースは全画面で1回だけデコードする
     BackgroundPanel(String res) {
-        try (InputStream is = getClass().getResourceAsStream(res)) {
-            if (is != null) img = ImageIO.read(is);
-        } catch (Exception e) {
-            e.printStackTrace();
+        cache = BackgroundCache.forResource(res);
+        cache.load(() -> {
+            scaled = null;
+            repaint();
+        });
+    }
+
+    // デコード済みの画像を使う
+    BackgroundPanel(BufferedImage img) {
+        cache = BackgroundCache.of(img);
+    }
+
+    // 元画像（読み込み前は null）
+    BufferedImage image() {
+        return cache.source();
+    }
+
+    // 装飾が変わった時（全体、または root 座標の範囲）
+    void invalidateChrome() {
+        compositeStale = true;
+    }
+
+    void invalidateChrome(int x, int y, int w, int h) {
+        if (staleRect.isEmpty()) {
+            staleRect.setBounds(x, y, w, h);
+        } else {
+            staleRect.add(new Rectangle(x, y, w, h));
+        }
+    }
+
+    // サイズ・背景・装飾が変わった時だけ、変わった範囲を描き直す
+    private BufferedImage compositeImage(int w, int h) {
+        BufferedImage bg = scaledImage(w, h);
+        if (composite == null || composite.getWidth() != w || composite.getHeight() != h) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            composite = gc != null
+                ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            compositeStale = true;
+        }
+        if (bg != compositeSource) {
+            compositeSource = bg;
+            compositeStale = true;
+        }
+
+        if (compositeStale) {
+            renderComposite(null);
+        } else if (!staleRect.isEmpty()) {
+            renderComposite(staleRect);
+        }
+        compositeStale = false;
+        staleRect.setBounds(0, 0, 0, 0);
+        return composite;
+    }
+
+    private void renderComposite(Rectangle clip) {
+        Graphics2D g2 = composite.createGraphics();
+        if (clip != null) g2.clip(clip);
+        if (compositeSource != null) {
+            g2.drawImage(compositeSource, 0, 0, null);
+        } else {
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, composite.getWidth(), composite.getHeight());
+        }
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintChrome(g2);
+        g2.dispose();
+    }
+
+    // サイズが変わった時だけキャッシュから取り直す（描画時は等倍転送のみ）
+    private BufferedImage scaledImage(int w, int h) {
+        if (scaled != null && scaled.getWidth() == w && scaled.getHeight() == h) {
+            return scaled;
         }
+        scaled = cache.scaled(w, h, getGraphicsConfiguration());
+        return scaled;
     }
 
+    private final Rectangle clipBounds = new Rectangle();
+
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-
-        Graphics2D g2 = (Graphics2D) g.create();
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0) return;
+
+        BufferedImage image = compositeImage(w, h);
+        clipBounds.setBounds(0, 0, w, h);
+        g.getClipBounds(clipBounds);
+        boolean shaded = overlay != null && overlay.isVisible();
+
+        // 流れ星も暗幕も掛からなければ焼き込んだ画像の転送だけ
+        if (!shaded && !shootingStars.intersects(clipBounds)) {
+            g.drawImage(image, 0, 0, null);
+            return;
+        }
 
-        if (img != null) {
-            g.drawImage(img, 0, 0, getWidth(), getHeight(), this);
+        // 背景 → 流れ星 → 暗幕 → 装飾 の順
+        if (compositeSource != null) {
+            g.drawImage(compositeSource, 0, 0, null);
+        } else {
+            super.paintComponent(g);
         }
 
+        Graphics2D g2 = (Graphics2D) g.create();
+
         // 流れ星描画（背景エフェクト）
-        for (ShootingStar star : shootingStars) {
-            star.draw(g2);
+        shootingStars.draw(g2);
+
+        // 選択パネルを開いている間の暗幕（時計のパネルと数字には掛けない）
+        if (shaded) {
+            g2.setColor(HUDOverlay.SHADE_COLOR);
+            g2.fillRect(0, 0, w, h);
         }
 
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintChrome(g2);
         g2.dispose();
     }
 }
 
 // 背景を暗くするオーバーレイ（都市選択時用）
-class HUDOverlay extends JComponent {
+// 暗幕そのものは BackgroundPanel が流れ星の上・焼き込んだ装飾の下に描く（時計のパネルと数字は暗くしない）。
+// ここでは表示中に背面の HUD へのクリックを止めるだけ
+class HUDOverlay extends JComponent implements HUDScene.Node {
+
+    static final Color SHADE_COLOR = new Color(0, 0, 0, 140);
 
     HUDOverlay() {
        setOpaque(false);
@@ -504,29 +1562,47 @@ class HUDOverlay extends JComponent {
        addMouseListener(new MouseAdapter() {});
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON);
+    // シーンの節点としては基準範囲の外の余白も覆う
+    @Override public int baseX() { return 0; }
+    @Override public int baseY() { return 0; }
+    @Override public int baseW() { return Short.MAX_VALUE; }
+    @Override public int baseH() { return Short.MAX_VALUE; }
 
-        // 半透明の暗幕
-        g2.setColor(new Color(0, 0, 0, 140));
-        g2.fillRect(0, 0, getWidth(), getHeight());
+    @Override
+    public void paintNode(Graphics2D g2) {
+    }
 
-        g2.dispose();
+    @Override
+    protected void paintComponent(Graphics g) {
     }
 }
  
 // HUD 時計ラベル（座標保持つき)
-class HUDClockLabel extends JLabel implements ScalableComponent {
+class HUDClockLabel extends JLabel implements ChromeComponent, HUDScene.Node {
 
-    private double time;
+    private final int index;   // エンジン上の天体インデックス
     private final String name;
 
     private final int bx, by, bw, bh;
 
-    HUDClockLabel(String name, int x, int y, int w, int h) {
-        this.name = name;
+    private static final Color PANEL_COLOR = new Color(0, 60, 80, 120);
+    private static final Color NAME_COLOR  = new Color(120, 240, 255, 180);
+    private static final Font  NAME_FONT   = new Font("Monospaced", Font.BOLD, 22);
+    private static final int   TIME_FONT_SIZE = 28;
+
+    // 現在のサイズに合わせたグリフアトラス
+    private GlyphAtlas atlas;
+    private int atlasWidth = -1;
+    private int atlasLen = -1;
+
+    // 表示中の文字列と、比較用の作業バッファ
+    private final char[] timeChars = new char[TimeFormatter.MAX_LENGTH];
+    private final char[] nextChars = new char[TimeFormatter.MAX_LENGTH];
+    private int timeLen;
+
+    HUDClockLabel(int index, int x, int y, int w, int h) {
+        this.index = index;
+        this.name = engine.name(index);
         this.bx = x; this.by = y; this.bw = w; this.bh = h;
         setForeground(new Color(180, 255, 255));
         setOpaque(false);
@@ -537,70 +1613,115 @@ class HUDClockLabel extends JLabel implements ScalableComponent {
    @Override public int baseW() { return bw; }
    @Override public int baseH() { return bh; }
 
-   void setTime(double sec) {
-       time = sec;
-       repaint();
+   // エンジンの最新値を整形し、変わった桁の範囲だけを再描画対象にする
+   void refresh() {
+       int len = timeFormatter.format(engine.time(index), nextChars);
+       int first = 0, last = len - 1;
+       if (len == timeLen) {
+           while (first < len && timeChars[first] == nextChars[first]) first++;
+           if (first == len) return;
+           while (timeChars[last] == nextChars[last]) last--;
+       }
+       System.arraycopy(nextChars, 0, timeChars, 0, len);
+
+       // 桁数が変わった時や、まだ描いていない時は全体
+       if (len != timeLen || atlas == null || atlasLen != len) {
+           timeLen = len;
+           markDirty(this);
+           return;
+       }
+       int adv = atlas.advance();
+       if (scene != null) {
+           double s = scene.scale();
+           scene.markDirty(this, (int) ((10 + first * adv) / s), 0, (int) Math.ceil((last - first + 1) * adv / s) + 1, bh);
+       } else {
+           scheduler.markDirty(this, 10 + first * adv, 0, (last - first + 1) * adv, getHeight());
+       }
+   }
+
+   // アクティブ描画用に現在の表示内容を写す
+   ActiveRenderer.Clock snapshot() {
+       return new ActiveRenderer.Clock(name, bx, by, bw, bh, new String(timeChars, 0, timeLen));
+   }
+
+   // 背景の半透明HUDパネルと天体名（アクティブ描画からも使う）
+   static void paintPanel(Graphics2D g2, int w, int h, String name) {
+        g2.setColor(PANEL_COLOR);
+        g2.fillRoundRect(0, 0, w, h, 20, 20);
+
+        // 光る外枠
+        g2.setFont(NAME_FONT);
+        g2.setColor(NAME_COLOR);
+        g2.drawString(name, 10, 22);
+   }
+
+   // len 文字が幅に収まるアトラス
+   static GlyphAtlas fitAtlas(int len, int availableWidth) {
+        return GlyphAtlas.forSize(GlyphAtlas.fitSize(TIME_FONT_SIZE, 8, len, availableWidth));
+   }
+
+   // パネルと天体名は背景に焼き込む
+   @Override
+   public void paintChrome(Graphics2D g2, int w, int h) {
+        paintPanel(g2, w, h, name);
    }
 
    @Override
    protected void paintComponent(Graphics g) {
        super.paintComponent(g);
        Graphics2D g2 = (Graphics2D) g.create();
-       g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        // 時計文字列（refresh で整形済み）
+        drawDigits(g2, getWidth(), getHeight());
 
-        // 背景の半透明HUDパネル
-        g2.setColor(new Color(0, 60, 80, 120));
-        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
+        g2.dispose();
+}
 
-        // 光る外枠
-        g2.setFont(new Font("Monospaced", Font.BOLD,22));
-        g2.setColor(new Color(120, 240, 255, 180));
-        g2.drawString(name, 10, 22);
-        
-        // 時計文字列
-        String timeText = format(time);
-
-        // メイン時計（光エフェクト）
-        Font baseFont = new Font("Monospaced", Font.BOLD, 28);
-        g2.setFont(baseFont);
-        
-        FontMetrics fm = g2.getFontMetrics();
-        int tw = fm.stringWidth(timeText);
-        int availableWidth = getWidth() - 20;
-        
-        // 文字が枠より大きい時だけ縮小
-        if (tw > availableWidth) {
-            float ratio = (float) availableWidth / tw;
-            int newSize = (int) (baseFont.getSize() * ratio);
-            newSize = Math.max(newSize, 8); // 最小サイズ
-            baseFont = baseFont.deriveFont((float) newSize);
-            g2.setFont(baseFont);
-            fm = g2.getFontMetrics();
-        }
+// メイン時計（グリフアトラスから転送、文字が枠より大きい時だけ縮小）。クリップに掛かる桁だけ描く
+private final Rectangle clipBounds = new Rectangle();
+
+private void drawDigits(Graphics2D g2, int w, int h) {
+        int len = timeLen;
+        GlyphAtlas atlas = atlasFor(len, w - 20);
+        int adv = atlas.advance();
+
+        clipBounds.setBounds(0, 0, w, h);
+        g2.getClipBounds(clipBounds);
+        int from = Math.max(0, (clipBounds.x - 10) / adv);
+        int to = Math.min(len, (clipBounds.x + clipBounds.width - 10 + adv - 1) / adv);
+        if (from >= to) return;
 
         // 垂直中央揃え
-        int y = (getHeight() + fm.getAscent()) / 2;
-     
-        // 時計本体描画
-        g2.setColor(new Color(180, 255, 255));
-        g2.drawString(timeText, 10, y);
+        int y = (h + atlas.ascent()) / 2;
+        atlas.draw(g2, timeChars, from, to - from, 10 + from * adv, y);
+}
 
-        g2.dispose();
+// シーンの節点として（時計文字はぼけないように画素座標へ戻してアトラスから転送）
+@Override
+public void paintNode(Graphics2D g2) {
+        java.awt.geom.AffineTransform at = g2.getTransform();
+        double s = at.getScaleX();
+        g2.scale(1 / s, 1 / s);
+
+        drawDigits(g2, (int) (bw * s), (int) (bh * s));
+
+        g2.setTransform(at);
 }
 
-private String format(double sec) {
-        sec = (sec % 86400 + 86400) % 86400;
-        int h = (int)(sec / 3600);
-        int m = (int)((sec % 3600) / 60);
-        double s = sec % 60;
-        return String.format("%02d:%02d:%05.2f", h, m, s);
+// 幅が変わった時だけアトラスを選び直す
+private GlyphAtlas atlasFor(int len, int availableWidth) {
+        if (atlas == null || availableWidth != atlasWidth || len != atlasLen) {
+            atlas = fitAtlas(len, availableWidth);
+            atlasWidth = availableWidth;
+            atlasLen = len;
+        }
+        return atlas;
 }
 
 }
 
 // HUD ステータス表示　（モード・都市）
-class HUDStatusLabel extends JComponent implements ScalableComponent {
+class HUDStatusLabel extends JComponent implements ChromeComponent, HUDScene.Node {
 
     private final int bx, by, bw, bh;
     private final java.util.function.Supplier<String[]> linesSupplier;
@@ -617,30 +1738,57 @@ class HUDStatusLabel extends JComponent implements ScalableComponent {
     @Override public int baseW() { return bw; }
     @Override public int baseH() { return bh; }
 
+    // アクティブ描画用に現在の表示内容を写す
+    ActiveRenderer.Panel snapshot() {
+        return new ActiveRenderer.Panel(false, bx, by, bw, bh, linesSupplier.get());
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D g2 = (Graphics2D) g.create();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                             RenderingHints.VALUE_ANTIALIAS_ON);
 
-        g2.setColor(new Color(0, 60, 80, 120));
-        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 18, 18);
+        paintText(g2, linesSupplier.get());
 
-        g2.setFont(new Font("Monospaced", Font.BOLD, 16));
-        g2.setColor(new Color(180, 255, 255));
+        g2.dispose();
+     }
+
+    @Override
+    public void paintNode(Graphics2D g2) {
+        paintText(g2, linesSupplier.get());
+    }
+
+    // 地のパネルは背景に焼き込み、文字だけ毎回描く
+    @Override
+    public void paintChrome(Graphics2D g2, int w, int h) {
+        paintBox(g2, w, h);
+    }
+
+    private static final Color PANEL_COLOR = new Color(0, 60, 80, 120);
+    private static final Color TEXT_COLOR  = new Color(180, 255, 255);
+    private static final Font  TEXT_FONT   = new Font("Monospaced", Font.BOLD, 16);
+
+    // 地のパネルと文字（アクティブ描画からも使う）
+    static void paintBox(Graphics2D g2, int w, int h) {
+        g2.setColor(PANEL_COLOR);
+        g2.fillRoundRect(0, 0, w, h, 18, 18);
+    }
+
+    static void paintText(Graphics2D g2, String[] lines) {
+        g2.setFont(TEXT_FONT);
+        g2.setColor(TEXT_COLOR);
 
         int y = 22;
-        for (String line : linesSupplier.get()) {
+        for (String line : lines) {
             g2.drawString(line, 10, y);
             y += 18;
         }
-
-        g2.dispose();
      }
   }
 
 // 選択肢の展開
-class HUDSelectPanel extends JComponent implements ScalableComponent {
+class HUDSelectPanel extends JComponent implements ScalableComponent, HUDScene.Node {
 
     private final int bx, by, bw, bh;
 
@@ -648,12 +1796,17 @@ class HUDSelectPanel extends JComponent implements ScalableComponent {
         "SIM x1",
         "SIM x10",
         "SIM x100",
-        "REAL WORLD"
+        "REAL WORLD",
+        "SOLAR TIME",
+        "SCRUB"
    };
 
     private final int ITEM_H = 36;
     private int hoverIndex = -1;
 
+    // 項目は固定なので、hover が変わった時だけ全体を描き直す
+    private final ChromeLayer chrome = new ChromeLayer();
+
 
     HUDSelectPanel(int x, int y, int w, int h) {
         this.bx = x; this.by = y; this.bw = w; this.bh = h;
@@ -665,8 +1818,7 @@ class HUDSelectPanel extends JComponent implements ScalableComponent {
             @Override
             public void mouseMoved(MouseEvent e) {
                 int idx = e.getY() / ITEM_H;
-                hoverIndex = (idx >= 0 && idx < items.length) ? idx : -1;
-                repaint();
+                setHoverIndex((idx >= 0 && idx < items.length) ? idx : -1);
             }
          });
 
@@ -696,29 +1848,78 @@ class HUDSelectPanel extends JComponent implements ScalableComponent {
         setVisible(false);
     }
 
+    // hover が変わった行だけを再描画対象にする
+    private void setHoverIndex(int idx) {
+        if (idx == hoverIndex) return;
+        markRow(hoverIndex);
+        markRow(idx);
+        hoverIndex = idx;
+        chrome.invalidate();
+    }
+
+    private void markRow(int idx) {
+        if (idx < 0) return;
+        if (scene != null) {
+            scene.markDirty(this, 0, idx * ITEM_H, bw, ITEM_H);
+        } else {
+            scheduler.markDirty(this, 0, idx * ITEM_H, getWidth(), ITEM_H);
+        }
+    }
+
+    // シーンの節点として（行の高さは基準座標）
+    @Override public boolean interactive() { return true; }
+
+    @Override
+    public void nodeMoved(int x, int y) {
+        int idx = y / ITEM_H;
+        setHoverIndex(idx < items.length ? idx : -1);
+    }
+
+    @Override
+    public void nodePressed(int x, int y) {
+        int idx = y / ITEM_H;
+        if (idx < items.length) onSelect(idx);
+    }
+
+    @Override
+    public void paintNode(Graphics2D g2) {
+        paintCached(g2, bw, bh);
+    }
+
+    private void paintCached(Graphics2D g2, int w, int h) {
+        Graphics2D cg = chrome.begin(g2, w, h, null);
+        if (cg != null) {
+            paintItems(cg, w, h);
+            cg.dispose();
+        }
+        chrome.draw(g2);
+    }
+
     // 選択されたときの処理
     private void onSelect(int index) {
         switch (index) {
             case 0 -> {
-                timeBase = TimeBase.SIM_X1;
+                setTimeBase(TimeBase.SIM_X1);
                 updateTimeScale();
             }
             case 1 -> {
-                timeBase = TimeBase.SIM_X10;
+                setTimeBase(TimeBase.SIM_X10);
                 updateTimeScale();
             }
             case 2 -> {
-                timeBase = TimeBase.SIM_X100;
+                setTimeBase(TimeBase.SIM_X100);
                 updateTimeScale();
             }
-            case 3 -> {
-                timeBase = TimeBase.REAL_WORLD;
-                timeScale = 1.0;
+            case 3 -> setTimeBase(TimeBase.REAL_WORLD);
+            case 4 -> setTimeBase(TimeBase.SOLAR);
+            case 5 -> {
+                startScrub();
+                setTimeBase(TimeBase.SCRUB);
             }
          }
          
+         // MET はリセットせず、倍率だけを切り替える（位相は連続）
          if (timeBase != TimeBase.REAL_WORLD) {
-             missionStartMillis = System.currentTimeMillis();
              hideAllOverlay();
          } else {
              overlayState = OverlayState.CITY_SELECT;
@@ -726,21 +1927,24 @@ class HUDSelectPanel extends JComponent implements ScalableComponent {
              updateOverlayState();
          }
 
-         updateClocks();
-         timeButton.setText(getTimeButtonLabel());
-         getParent().repaint();
+         recordEvent(SessionRecorder.MODE);
+         onTimeChanged();
          close(); // 選択後に収納
       }
 
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                            RenderingHints.VALUE_ANTIALIAS_ON);
 
+        paintCached(g2, getWidth(), getHeight());
+
+        g2.dispose();
+    }
+
+    private void paintItems(Graphics2D g2, int w, int h) {
         // 背景パネル
         g2.setColor(new Color(0, 40, 60, 200));
-        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
+        g2.fillRoundRect(0, 0, w, h, 20, 20);
 
         g2.setFont(new Font("Monospaced", Font.BOLD, 16));
 
@@ -750,69 +1954,100 @@ class HUDSelectPanel extends JComponent implements ScalableComponent {
            // hover 表示
            if (i == hoverIndex) {
                g2.setColor(new Color(0, 120, 160, 180));
-               g2.fillRect(0, y, getWidth(), ITEM_H);
+               g2.fillRect(0, y, w, ITEM_H);
            }  
 
            g2.setColor(new Color(180, 255, 255));
            g2.drawString(items[i], 12, y + 24);
         }
-
-        g2.dispose();
     }
 }
 
 // 都市選択パネル
+// 先頭行が検索欄（キー入力で前方一致検索）、以降は検索結果のうち見えている行だけを描画する。
+// カタログは初めて開いた時に読み込む（読み込み中は LOADING 表示）
 class HUDCitySelectPanel extends JComponent implements ScalableComponent {
 
+    private static final Color PANEL_COLOR  = new Color(0, 40, 60, 220);
+    private static final Color SEARCH_COLOR = new Color(0, 70, 95, 220);
+    private static final Color HOVER_COLOR  = new Color(0, 120, 160, 180);
+    private static final Color TEXT_COLOR   = new Color(180, 255, 255);
+    private static final Color DIM_COLOR    = new Color(110, 170, 180);
+    private static final Font ITEM_FONT     = new Font("Monospaced", Font.BOLD, 14);
+
     private final int bx, by, bw, bh;
-    private int hoverIndex = -1;
+    private final ChromeLayer chrome = new ChromeLayer();   // パネルと検索欄の地
+    private int hoverIndex = -1;          // 検索結果内の位置
     private final int ITEM_H = 32;
     private int scrollOffset = 0;
 
+    private CityCatalog catalog;
+    private int[] results = new int[0];   // 検索結果（カタログの都市番号）
+    private int resultCount;
+    private final StringBuilder query = new StringBuilder();
+
     HUDCitySelectPanel(int x, int y, int w, int h) {
        this.bx = x; this.by = y; this.bw =w; this.bh = h;
        setVisible(false);
+       setFocusable(true);
 
        addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                int idx = scrollOffset + e.getY() / ITEM_H;
-                hoverIndex = (idx >= 0 && idx < WORLD_CITIES.length) ? idx : -1;
-                repaint();
+                setHoverIndex(resultAt(e.getY()));
             }
        });
 
        addMouseListener(new MouseAdapter() {
            @Override
            public void mousePressed(MouseEvent e) {
-               int index = scrollOffset +e.getY() / ITEM_H;
-               if (index >= 0 && index < WORLD_CITIES.length) {
-                   selectedCityIndex = index;
-                   updateClocks();
-                   timeButton.setText(getTimeButtonLabel());
-                   
-                   hideAllOverlay();
-               }
+               requestFocusInWindow();
+               choose(resultAt(e.getY()));
            }
 
            @Override
            public void mouseExited(MouseEvent e) {
-               hoverIndex = -1;
-               repaint();
+               setHoverIndex(-1);
            }
        });
 
     // スクロール対応
-    addMouseWheelListener(e -> {
-        int visibleCount = Math.max(1, getHeight() / ITEM_H);
-        int maxOffset = Math.max(0, WORLD_CITIES.length - visibleCount);
-
-        scrollOffset += e.getWheelRotation();
-        scrollOffset = Math.max(0, Math.min(scrollOffset, maxOffset)); 
-
+    addMouseWheelListener(e -> scrollTo(scrollOffset + e.getWheelRotation()));
+
+    // 検索入力（処理したキーは消費し、ウィンドウ全体のキー割り当てに渡さない）
+    addKeyListener(new KeyAdapter() {
+        @Override
+        public void keyTyped(KeyEvent e) {
+            char ch = e.getKeyChar();
+            if (ch == '\b') {
+                if (query.length() > 0) query.setLength(query.length() - 1);
+                search();
+            } else if (ch == '\n') {
+                choose(hoverIndex >= 0 ? hoverIndex : 0);
+            } else if (ch == KeyEvent.VK_ESCAPE) {
+                hideAllOverlay();
+            } else if (Character.isLetterOrDigit(ch) || " /_-.+'".indexOf(ch) >= 0) {
+                query.append(ch);
+                search();
+            } else {
+                return;
+            }
+            e.consume();
+        }
 
-        repaint();
-     });
+        @Override
+        public void keyPressed(KeyEvent e) {
+            int visibleCount = visibleRows();
+            switch (e.getKeyCode()) {
+                case KeyEvent.VK_DOWN      -> moveHover(1);
+                case KeyEvent.VK_UP        -> moveHover(-1);
+                case KeyEvent.VK_PAGE_DOWN -> moveHover(visibleCount);
+                case KeyEvent.VK_PAGE_UP   -> moveHover(-visibleCount);
+                default -> { return; }
+            }
+            e.consume();
+        }
+    });
   }
  
     @Override public int baseX() { return bx; }
@@ -822,45 +2057,461 @@ class HUDCitySelectPanel extends JComponent implements ScalableComponent {
 
     void open()  {
         setVisible(true);
+        requestFocusInWindow();
+        if (catalog == null) {
+            CityCatalog.loadAsync(WORLD_CITIES, c -> {
+                catalog = c;
+                results = new int[c.size()];
+                search();
+            });
+        }
     }
 
     void close() {
         setVisible(false);
     }
 
+    private int visibleRows() {
+        return Math.max(1, getHeight() / ITEM_H - 1);
+    }
+
+    // y 座標 → 検索結果内の位置（検索欄や範囲外は -1）
+    private int resultAt(int y) {
+        if (y < ITEM_H) return -1;
+        int idx = scrollOffset + (y - ITEM_H) / ITEM_H;
+        return idx < resultCount ? idx : -1;
+    }
+
+    private void choose(int idx) {
+        if (idx < 0 || idx >= resultCount) return;
+        selectCity(catalog.city(results[idx]));
+        recordEvent(SessionRecorder.CITY);
+        onTimeChanged();
+
+        hideAllOverlay();
+    }
+
+    // 検索し直して先頭へ戻す（検索は二分探索＋ヒット件数分なので全件でもキー入力ごとに行える）
+    private void search() {
+        if (catalog == null) return;
+        resultCount = catalog.search(query, results);
+        scrollOffset = 0;
+        hoverIndex = query.length() > 0 && resultCount > 0 ? 0 : -1;
+        repaint();
+    }
+
+    private void scrollTo(int offset) {
+        int maxOffset = Math.max(0, resultCount - visibleRows());
+        offset = Math.max(0, Math.min(offset, maxOffset));
+        if (offset == scrollOffset) return;
+        scrollOffset = offset;
+        repaint();
+    }
+
+    // キー操作での移動（選択行が見える位置までスクロール）
+    private void moveHover(int delta) {
+        if (resultCount == 0) return;
+        int idx = Math.max(0, Math.min(hoverIndex + delta, resultCount - 1));
+        int visibleCount = visibleRows();
+        if (idx < scrollOffset) {
+            scrollTo(idx);
+        } else if (idx >= scrollOffset + visibleCount) {
+            scrollTo(idx - visibleCount + 1);
+        }
+        setHoverIndex(idx);
+    }
+
+    // hover が変わった行だけを再描画対象にする（行は表示位置で計算）
+    private void setHoverIndex(int idx) {
+        if (idx == hoverIndex) return;
+        if (hoverIndex >= 0) scheduler.markDirty(this, 0, (hoverIndex - scrollOffset + 1) * ITEM_H, getWidth(), ITEM_H);
+        if (idx >= 0)        scheduler.markDirty(this, 0, (idx - scrollOffset + 1) * ITEM_H, getWidth(), ITEM_H);
+        hoverIndex = idx;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D g2 = (Graphics2D) g.create();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                             RenderingHints.VALUE_ANTIALIAS_ON);
 
-        g2.setColor(new Color(0, 40, 60, 220));
-        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
+        Graphics2D cg = chrome.begin(g2, getWidth(), getHeight(), null);
+        if (cg != null) {
+            cg.setColor(PANEL_COLOR);
+            cg.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
 
-        g2.setFont(new Font("Monospaced", Font.BOLD, 14));
-
-        int visibleCount = Math.max(1, getHeight() / ITEM_H);
-        int start = scrollOffset;
-        int end = Math.min(start + visibleCount, WORLD_CITIES.length);
+            // 検索欄
+            cg.setColor(SEARCH_COLOR);
+            cg.fillRect(0, 0, getWidth(), ITEM_H);
+            cg.dispose();
+        }
+        chrome.draw(g2);
+
+        g2.setFont(ITEM_FONT);
+        g2.setColor(TEXT_COLOR);
+        g2.drawString("> " + query + "_", 10, 22);
+        if (catalog == null) {
+            g2.setColor(DIM_COLOR);
+            g2.drawString("LOADING...", 10, ITEM_H + 22);
+            g2.dispose();
+            return;
+        }
+        String count = Integer.toString(resultCount);
+        g2.setColor(DIM_COLOR);
+        g2.drawString(count, getWidth() - 10 - g2.getFontMetrics().stringWidth(count), 22);
+
+        // 見えている行だけ（クリップ外の行も飛ばす）
+        Rectangle clip = g2.getClipBounds();
+        int first = 0, last = visibleRows();
+        if (clip != null) {
+            first = Math.max(first, clip.y / ITEM_H - 1);
+            last = Math.min(last, (clip.y + clip.height + ITEM_H - 1) / ITEM_H);
+        }
+        int end = Math.min(scrollOffset + last, resultCount);
 
-        for (int i = start; i < end; i++) {
-            int y = (i - start) * ITEM_H;
+        for (int i = scrollOffset + first; i < end; i++) {
+            int y = (i - scrollOffset + 1) * ITEM_H;
 
             if(i == hoverIndex) {
-               g2.setColor(new Color(0, 120, 160, 180));
+               g2.setColor(HOVER_COLOR);
                g2.fillRect(0, y, getWidth(), ITEM_H);
             }
 
-            g2.setColor(new Color(180, 255, 255));
-            g2.drawString(WORLD_CITIES[i].name(), 10, y + 22);
+            g2.setColor(TEXT_COLOR);
+            g2.drawString(catalog.city(results[i]).name(), 10, y + 22);
         }
 
         g2.dispose();
      }
 }
 
+// 全都市グリッド（都市ごとの地球・各天体の現地時刻を一覧表示）
+// 見えている行だけを整形・描画し、表示文字が変わった桁の範囲だけを再描画対象にする
+class HUDWorldGrid extends JComponent implements ScalableComponent {
+
+    private static final int HEADER_H = 32;
+    private static final int ROW_H = 28;
+    private static final int CITY_W = 200;
+    private static final int PAD = 8;
+
+    private static final Color GRID_COLOR   = new Color(0, 30, 45);
+    private static final Color ROW_ALT      = new Color(0, 42, 60);
+    private static final Color HEADER_COLOR = new Color(120, 240, 255);
+    private static final Color TEXT_COLOR   = new Color(180, 255, 255);
+    private static final Color SCROLL_COLOR = new Color(120, 240, 255, 120);
+
+    private final int bx, by, bw, bh;
+
+    private City[] cities = new City[0];
+    private ZoneOffsetCache[] offsets = new ZoneOffsetCache[0];
+
+    // 表示文字列 [行][列][文字] を1次元に詰めたもの
+    private final TimeFormatter formatter = new TimeFormatter(TimeFormatter.Precision.SECONDS);
+    private final int textLen = formatter.length();
+    private char[] text = new char[0];
+    private boolean[] formatted = new boolean[0];   // 直近のtickで整形済みの行
+    private int cols;
+
+    private double[] times = new double[0];
+    private final char[] scratch = new char[TimeFormatter.MAX_LENGTH];
+
+    private int scrollRow;
+
+    // 現在のサイズでのレイアウト（サイズが変わった時だけ計算）
+    private int layoutW = -1, layoutH = -1;
+    private int headerH, rowH, cityW, colW, pad, baseline;
+    private Font cityFont, headerFont;
+    private GlyphAtlas atlas;
+
+    private final Rectangle clip = new Rectangle();
+
+    HUDWorldGrid(int x, int y, int w, int h) {
+        this.bx = x; this.by = y; this.bw = w; this.bh = h;
+        setOpaque(true);
+        setVisible(false);
+
+        // スクロール
+        addMouseWheelListener(e -> {
+            int max = Math.max(0, cities.length - visibleRows());
+            int next = Math.max(0, Math.min(scrollRow + e.getWheelRotation() * 3, max));
+            if (next != scrollRow) {
+                scrollRow = next;
+                refresh();
+                scheduler.markDirty(this);
+            }
+        });
+    }
+
+    @Override public int baseX() { return bx; }
+    @Override public int baseY() { return by; }
+    @Override public int baseW() { return bw; }
+    @Override public int baseH() { return bh; }
+
+    void setCities(City[] list) {
+        cities = list.clone();
+        offsets = new ZoneOffsetCache[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            offsets[i] = new ZoneOffsetCache(cities[i].zone());
+        }
+        scrollRow = 0;
+        cols = -1;   // 次の refresh で確保し直す
+        refresh();
+        repaint();
+    }
+
+    // 天体の構成が変わった時（列を確保し直して全行を整形し直す）
+    void bodiesChanged() {
+        cols = -1;
+        refresh();
+        repaint();
+    }
+
+    private void ensureCapacity() {
+        int n = engine.size();
+        if (n == cols && formatted.length == cities.length) return;
+
+        cols = n;
+        text = new char[cities.length * cols * textLen];
+        formatted = new boolean[cities.length];
+        times = new double[cols];
+        layoutW = -1;
+    }
+
+    private int visibleRows() {
+        layoutIfNeeded();
+        return Math.max(1, (getHeight() - headerH) / Math.max(1, rowH));
+    }
+
+    // 見えている行だけ再計算し、変わった桁の範囲を再描画対象にする
+    // 文字列はいつも更新する（--headless では表示されないまま描画するので）。再描画の登録は表示中だけ
+    void refresh() {
+        ensureCapacity();
+
+        long now = wallMillis();
+        boolean showing = isShowing();
+        int first = scrollRow;
+        int last = Math.min(cities.length, first + visibleRows() + 1);
+
+        for (int r = 0; r < cities.length; r++) {
+            if (r < first || r >= last) {
+                formatted[r] = false;   // 画面外は次に見えた時に整形
+                continue;
+            }
+            boolean wasFormatted = formatted[r];
+            formatRow(r, now, !wasFormatted || !showing);
+            if (!wasFormatted && showing) {
+                scheduler.markDirty(this, 0, rowY(r), getWidth(), rowH);
+            }
+        }
+    }
+
+    // 1行分を整形（initial でなければ変化した桁の範囲を再描画対象に登録）
+    // SOLAR は updateClocks と同じく J2000 からの秒で地方平均太陽時を計算する（都市によらず全行同じ）
+    private void formatRow(int r, long now, boolean initial) {
+        if (timeBase == TimeBase.SOLAR) {
+            engine.computeSolarInto(SolarTime.j2000Seconds(now), times, 0);
+        } else {
+            engine.computeInto(offsets[r].secondOfDay(now), times, 0);
+        }
+
+        for (int c = 0; c < cols; c++) {
+            formatter.format(times[c], scratch);
+            int base = (r * cols + c) * textLen;
+
+            int firstDiff = -1, lastDiff = -1;
+            for (int k = 0; k < textLen; k++) {
+                if (text[base + k] != scratch[k]) {
+                    if (firstDiff < 0) firstDiff = k;
+                    lastDiff = k;
+                    text[base + k] = scratch[k];
+                }
+            }
+
+            if (!initial && firstDiff >= 0) {
+                int adv = atlas.advance();
+                scheduler.markDirty(this,
+                    cityW + c * colW + pad + firstDiff * adv, rowY(r),
+                    (lastDiff - firstDiff + 1) * adv, rowH);
+            }
+        }
+        formatted[r] = true;
+    }
+
+    private int rowY(int r) {
+        return headerH + (r - scrollRow) * rowH;
+    }
+
+    private void layoutIfNeeded() {
+        int w = getWidth(), h = getHeight();
+        if (w == layoutW && h == layoutH && atlas != null) return;
+
+        double scale = w / (double) bw;
+        headerH = Math.max(12, (int) (HEADER_H * scale));
+        rowH    = Math.max(10, (int) (ROW_H * scale));
+        cityW   = (int) (CITY_W * scale);
+        pad     = Math.max(2, (int) (PAD * scale));
+        colW    = Math.max(1, (w - cityW) / Math.max(1, cols));
+
+        int size = GlyphAtlas.fitSize(Math.max(8, (int) (rowH * 0.75)), 6, textLen, colW - pad * 2);
+        atlas      = GlyphAtlas.forSize(size);
+        cityFont   = new Font("Monospaced", Font.BOLD, Math.max(8, (int) (rowH * 0.55)));
+        headerFont = new Font("Monospaced", Font.BOLD, Math.max(8, (int) (headerH * 0.5)));
+        baseline   = (rowH + atlas.ascent()) / 2 - 1;
+
+        layoutW = w;
+        layoutH = h;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        ensureCapacity();
+        layoutIfNeeded();
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                            RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        if (g2.getClipBounds(clip) == null) {
+            clip.setBounds(0, 0, getWidth(), getHeight());
+        }
+
+        g2.setColor(GRID_COLOR);
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // 見出し（天体名）
+        if (clip.y < headerH) {
+            g2.setFont(headerFont);
+            g2.setColor(HEADER_COLOR);
+            g2.drawString("City", pad, headerH - pad);
+            for (int c = 0; c < cols; c++) {
+                g2.drawString(engine.name(c), cityW + c * colW + pad, headerH - pad);
+            }
+        }
+
+        // クリップ範囲に掛かる行だけ描画
+        int top = Math.max(clip.y, headerH) - headerH;
+        int bottom = clip.y + clip.height - headerH;
+        int first = scrollRow + Math.max(0, top / rowH);
+        int last = Math.min(cities.length - 1, scrollRow + bottom / rowH);
+        long now = wallMillis();
+
+        g2.setFont(cityFont);
+        for (int r = first; r <= last; r++) {
+            int y = rowY(r);
+
+            if ((r & 1) == 1) {
+                g2.setColor(ROW_ALT);
+                g2.fillRect(clip.x, y, clip.width, rowH);
+            }
+
+            if (!formatted[r]) {
+                formatRow(r, now, true);
+            }
+
+            if (clip.x < cityW) {
+                g2.setColor(TEXT_COLOR);
+                g2.drawString(cities[r].name(), pad, y + baseline);
+            }
+
+            for (int c = 0; c < cols; c++) {
+                int x = cityW + c * colW;
+                if (x + colW < clip.x || x > clip.x + clip.width) continue;
+                atlas.draw(g2, text, (r * cols + c) * textLen, textLen, x + pad, y + baseline);
+            }
+        }
+
+        // スクロール位置
+        int rows = visibleRows();
+        if (cities.length > rows) {
+            int trackH = getHeight() - headerH;
+            int barH = Math.max(8, trackH * rows / cities.length);
+            int barY = headerH + (trackH - barH) * scrollRow / Math.max(1, cities.length - rows);
+            g2.setColor(SCROLL_COLOR);
+            g2.fillRect(getWidth() - 4, barY, 3, barH);
+        }
+
+        g2.dispose();
+    }
+}
+
+// スクラブ用のスライダー（地と枠は HUDButton と同じ）
+// 溝の上のどこを押しても・ドラッグしてもつまみがそこへ動く。中央がずれ 0
+class HUDScrubBar extends JComponent implements ScalableComponent, HUDScene.Node {
+
+    private static final int PAD = 28;   // 溝の左右の余白
+    private static final Color FILL = new Color(0, 60, 80, 140);
+    private static final Color LINE = new Color(120, 240, 255, 160);
+    private static final Color KNOB = new Color(180, 255, 255, 230);
+    private static final Font LABEL_FONT = new Font("Monospaced", Font.BOLD, 18);
+
+    private final int bx, by, bw, bh;
+
+    HUDScrubBar(int x, int y, int w, int h) {
+        this.bx = x; this.by = y; this.bw = w; this.bh = h;
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override public void mousePressed(MouseEvent e) { seek(e.getX(), getWidth()); }
+            @Override public void mouseDragged(MouseEvent e) { seek(e.getX(), getWidth()); }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    @Override public int baseX() { return bx; }
+    @Override public int baseY() { return by; }
+    @Override public int baseW() { return bw; }
+    @Override public int baseH() { return bh; }
+
+    // 幅 w の中の x → つまみの位置
+    private void seek(int x, int w) {
+        setScrubPosition(2.0 * (x - PAD) / Math.max(1, w - 2 * PAD) - 1.0);
+    }
+
+    // シーンの節点として
+    @Override public boolean interactive() { return true; }
+    @Override public void nodePressed(int x, int y) { seek(x, bw); }
+    @Override public void nodeDragged(int x, int y) { seek(x, bw); }
+
+    @Override
+    public void paintNode(Graphics2D g2) {
+        paintBar(g2, bw, bh);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintBar(g2, getWidth(), getHeight());
+        g2.dispose();
+    }
+
+    private void paintBar(Graphics2D g2, int w, int h) {
+        g2.setColor(FILL);
+        g2.fillRoundRect(0, 0, w, h, 18, 18);
+        g2.setColor(LINE);
+        g2.drawRoundRect(0, 0, w - 1, h - 1, 18, 18);
+
+        // 溝と中央の目盛り
+        int y = h * 2 / 3;
+        int x0 = PAD, x1 = w - PAD;
+        g2.drawLine(x0, y, x1, y);
+        g2.drawLine(w / 2, y - 6, w / 2, y + 6);
+
+        // つまみ
+        int kx = x0 + (int) Math.round((leader.scrubPosition + 1) / 2 * (x1 - x0));
+        g2.setColor(KNOB);
+        g2.fillRoundRect(kx - 5, y - 10, 10, 20, 6, 6);
+
+        // ずれ
+        String text = scrubLabel();
+        g2.setFont(LABEL_FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        g2.drawString(text, (w - fm.stringWidth(text)) / 2, h / 3 + fm.getAscent() / 2 - 2);
+    }
+}
+
 // HUD ボタン　（JComponent版)
-class HUDButton extends JComponent implements ScalableComponent {
+class HUDButton extends JComponent implements ChromeComponent, HUDScene.Node {
 
     private final int bx, by, bw, bh;
     private boolean hover = false;
@@ -874,12 +2525,10 @@ class HUDButton extends JComponent implements ScalableComponent {
 
         addMouseListener(new MouseAdapter() {
             @Override public void mouseEntered(MouseEvent e) {
-                hover = true;
-                repaint();
+                setHover(true);
             }
             @Override public void mouseExited(MouseEvent e) {
-                hover = false;
-                repaint();
+                setHover(false);
             }
             @Override public void mousePressed(MouseEvent e) {
                 if (action != null) action.run();
@@ -893,25 +2542,53 @@ class HUDButton extends JComponent implements ScalableComponent {
       @Override public int baseH() { return bh; }
 
       void setText(String newText) {
+          if (newText.equals(text)) return;
           this.text = newText;
-          repaint();
+          chromeChanged(this);
+      }
+
+      private void setHover(boolean h) {
+          if (h == hover) return;
+          hover = h;
+          chromeChanged(this);
+      }
+
+      // シーンの節点として
+      @Override public boolean interactive() { return true; }
+      @Override public void nodeMoved(int x, int y) { setHover(true); }
+      @Override public void nodeExited()            { setHover(false); }
+
+      @Override
+      public void nodePressed(int x, int y) {
+          if (action != null) action.run();
       }
 
+      // 文字まで含めて背景に焼き込むので、ボタン自身は何も描かない
       @Override
-      protected void paintComponent(Graphics g) {
-          Graphics2D g2 = (Graphics2D) g.create();
-          g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                              RenderingHints.VALUE_ANTIALIAS_ON);
+      public void paintNode(Graphics2D g2) {
+      }
+
+      @Override
+      public void paintChrome(Graphics2D g2, int w, int h) {
+          paintButton(g2, w, h, text, hover);
+      }
 
+      // アクティブ描画用に現在の表示内容を写す
+      ActiveRenderer.Panel snapshot() {
+          return new ActiveRenderer.Panel(true, bx, by, bw, bh, new String[] { text });
+      }
+
+      // アクティブ描画からも使う
+      static void paintButton(Graphics2D g2, int w, int h, String text, boolean hover) {
           // 背景
           g2.setColor(hover
               ? new Color(0, 120, 160, 180)
               : new Color(0, 60, 80, 140));
-          g2.fillRoundRect(0, 0, getWidth(), getHeight(), 18, 18);
+          g2.fillRoundRect(0, 0, w, h, 18, 18);
 
           // 外枠
           g2.setColor(new Color(120, 240, 255, hover ? 220 : 160));
-          g2.drawRoundRect(0, 0, getWidth() -1, getHeight() - 1, 18, 18);
+          g2.drawRoundRect(0, 0, w -1, h - 1, 18, 18);
 
           // テキスト中央
           Font baseFont = new Font("Monospaced", Font.BOLD, 18);
@@ -919,7 +2596,7 @@ class HUDButton extends JComponent implements ScalableComponent {
  
           FontMetrics fm = g2.getFontMetrics();
           int textWidth = fm.stringWidth(text);
-          int maxWidth = getWidth() - 16;
+          int maxWidth = w - 16;
 
           // はみ出す場合はフォント縮小
           if (textWidth > maxWidth) {
@@ -930,23 +2607,166 @@ class HUDButton extends JComponent implements ScalableComponent {
               fm = g2.getFontMetrics();
           }
 
-          int tx = (getWidth() - fm.stringWidth(text)) / 2;
-          int ty = (getHeight() + fm.getAscent()) / 2 - 2;
+          int tx = (w - fm.stringWidth(text)) / 2;
+          int ty = (h + fm.getAscent()) / 2 - 2;
           g2.drawString(text, tx, ty);
-
-          g2.dispose();
         }
      }
 
 
 // ▼ メインメソッド（ウィンドウ起動）
-public static void main(String[] args) {
-    PlanetHUDClock frame = new PlanetHUDClock();
-    frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+public static void main(String[] args) throws Exception {
+
+    // ヘッドレス指定は AWT 初期化より前に反映する
+    boolean headless = java.util.Arrays.asList(args).contains("--headless");
+    if (headless) {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    // 追加の都市ファイル（カタログ構築前に設定しておく）
+    for (String arg : args) {
+        if (arg.startsWith("--cities=")) {
+            CityCatalog.setExtraFile(java.nio.file.Path.of(arg.substring("--cities=".length())));
+        }
+    }
+
+    PlanetHUDClock hud = new PlanetHUDClock();
+    HeadlessRenderer.Options headlessOptions = new HeadlessRenderer.Options();
+    boolean headlessOutput = false;   // --out / --raw の指定あり
+    boolean serve = false;
+    boolean active = false;
+    int screenCount = -1;            // --screens: 0 なら全ディスプレイ
+    java.nio.file.Path replayDir = null;
+    double replayFrom = 0;
+    double replaySpeed = 1;
+
+    // 起動オプション
+    for (String arg : args) {
+        if (arg.startsWith("--precision=")) {
+            hud.setClockPrecision(TimeFormatter.Precision.parse(arg.substring("--precision=".length())));
+        } else if (arg.startsWith("--stars=")) {
+            // --stars=確率,クールダウン,発生数  例) --stars=0.5,0,20
+            String[] v = arg.substring("--stars=".length()).split(",");
+            hud.setShootingStarRate(
+                Double.parseDouble(v[0]),
+                v.length > 1 ? Integer.parseInt(v[1]) : 60,
+                v.length > 2 ? Integer.parseInt(v[2]) : 1);
+        } else if (arg.startsWith("--scale=")) {
+            hud.setTimeScale(Double.parseDouble(arg.substring("--scale=".length())));
+        } else if (arg.equals("--solar")) {
+            hud.useSolarTime();
+        } else if (arg.equals("--grid") || arg.startsWith("--grid=")) {
+            // --grid: 全都市グリッドで起動、--grid=all: tzdb の全ゾーンを表示
+            hud.setWorldGridCities(arg.startsWith("--grid=") ? arg.substring("--grid=".length()) : "");
+            hud.showWorldGrid(true);
+        } else if (arg.startsWith("--bodies=")) {
+            // 天体カタログ（保存すると再起動なしで反映）
+            try {
+                hud.loadBodies(java.nio.file.Path.of(arg.substring("--bodies=".length())));
+            } catch (java.io.IOException | IllegalArgumentException e) {
+                System.err.println("bodies: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (arg.startsWith("--cities=")) {
+            // 設定済み
+        } else if (arg.equals("--serve") || arg.startsWith("--serve=")) {
+            // ローカル HTTP 配信（/times, /events）
+            int port = arg.startsWith("--serve=") ? Integer.parseInt(arg.substring("--serve=".length())) : 8765;
+            System.err.println("serving on http://127.0.0.1:" + hud.startServer(port) + "/times");
+            serve = true;
+        } else if (arg.equals("--screens") || arg.startsWith("--screens=")) {
+            // ディスプレイごとにウィンドウを開く（--screens=N なら N 枚、ディスプレイが足りなければ重ねる）
+            screenCount = arg.startsWith("--screens=") ? Integer.parseInt(arg.substring("--screens=".length())) : 0;
+        } else if (arg.equals("--sync-master") || arg.startsWith("--sync-master=")) {
+            // --sync-master[=ADDR:PORT,...]（既定はマルチキャスト 239.255.42.99:47800）
+            String spec = arg.startsWith("--sync-master=") ? arg.substring("--sync-master=".length()) : "";
+            List<java.net.InetSocketAddress> targets = new ArrayList<>();
+            for (String t : spec.split(",")) {
+                targets.add(ClockSync.parseAddress(t));
+            }
+            hud.startSyncMaster(targets);
+        } else if (arg.equals("--sync-follow") || arg.startsWith("--sync-follow=")) {
+            // --sync-follow[=ADDR:PORT]（マルチキャストならグループに参加、それ以外はその宛先で待ち受け）
+            String spec = arg.startsWith("--sync-follow=") ? arg.substring("--sync-follow=".length()) : "";
+            hud.startSyncFollower(ClockSync.parseAddress(spec));
+        } else if (arg.equals("--active")) {
+            // 描画スレッド + BufferStrategy で描く（ウィンドウ表示のみ）
+            active = true;
+        } else if (arg.equals("--retained")) {
+            // HUD 要素をシーングラフとして1つの変換の下でまとめて描く
+            hud.useRetainedRendering();
+        } else if (arg.equals("--diagnostics")) {
+            if (!hud.diagnosticsLabel.isVisible()) hud.toggleDiagnostics();
+        } else if (arg.startsWith("--metrics=")) {
+            hud.exportMetricsOnExit(java.nio.file.Path.of(arg.substring("--metrics=".length())));
+        } else if (arg.startsWith("--record=")) {
+            // 表示した内容をセッションログに記録する
+            try {
+                hud.startRecording(java.nio.file.Path.of(arg.substring("--record=".length())));
+            } catch (java.io.IOException e) {
+                System.err.println("record: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (arg.startsWith("--replay=")) {
+            // --replay=DIR [--replay-from=[[時:]分:]秒] [--replay-speed=倍率]
+            replayDir = java.nio.file.Path.of(arg.substring("--replay=".length()));
+        } else if (arg.startsWith("--replay-from=")) {
+            replayFrom = 0;
+            for (String v : arg.substring("--replay-from=".length()).split(":")) {
+                replayFrom = replayFrom * 60 + Double.parseDouble(v);
+            }
+        } else if (arg.startsWith("--replay-speed=")) {
+            replaySpeed = Double.parseDouble(arg.substring("--replay-speed=".length()));
+        } else if (headless) {
+            headlessOptions.parse(arg);
+            headlessOutput |= arg.startsWith("--out=") || arg.startsWith("--raw");
+        }
+    }
+
+    if (replayDir != null) {
+        try {
+            hud.startReplay(replayDir, replayFrom, replaySpeed);
+        } catch (java.io.IOException e) {
+            System.err.println("replay: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    if (headless && serve && !headlessOutput) {
+        // 描画せずに配信だけ続ける（時計タイマーは EDT で動き続ける）
+        Thread.currentThread().join();
+    }
+
+    if (headless) {
+        // ウィンドウを作らずにフレームを書き出す
+        new HeadlessRenderer(hud.getRoot(), headlessOptions).run();
+        System.exit(0);
+    }
+
+    if (screenCount >= 0) {
+        if (active) System.err.println("--active is ignored with --screens");
+        GraphicsDevice[] devices = GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices();
+        int n = screenCount == 0 ? devices.length : screenCount;
+        for (int k = 0; k < n; k++) {
+            PlanetHUDClock screen = k == 0 ? hud : hud.addScreen();
+            GraphicsConfiguration gc = devices[k % devices.length].getDefaultConfiguration();
+            JFrame frame = screen.createWindow(gc);
+            frame.setBounds(gc.getBounds());
+            frame.setVisible(true);
+        }
+        return;
+    }
+
+    JFrame frame = active ? hud.createActiveWindow() : hud.createWindow();
     
     frame.setSize(1280, 720); 
     frame.setLocationRelativeTo(null);
     frame.setVisible(true);
+
+    if (active) {
+        hud.startActiveRendering();
+        return;
+    }
     
     frame.revalidate();
     frame.repaint();
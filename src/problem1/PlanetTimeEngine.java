@@ -0,0 +1,134 @@
+package problem1;
+
+import java.util.Arrays;
+
+// 惑星時間エンジン（Swing非依存）
+// 全天体の自転周期・進み倍率・エポックオフセットをプリミティブ配列で保持し、
+// 1回のtickで全天体のローカル時刻をまとめて計算する（tick中のアロケーションなし）。
+// 地方平均太陽時用に J2000 起点の進み・位相も別に持つ（SolarTime で求めた係数）
+final class PlanetTimeEngine {
+
+    private static final double EARTH_DAY = 86400.0;
+
+    private String[] names;
+    private double[] rotation;     // 自転周期（秒、負は逆向き自転）
+    private double[] rate;         // 地球時間1秒あたり惑星時間が何秒進むか
+    private double[] epochOffset;  // MET 0 のときの惑星時刻（秒）
+    private double[] solarRate;    // 地球時間1秒あたり平均太陽時が何秒進むか
+    private double[] solarOffset;  // J2000.0 での平均太陽時（秒）
+    private double[] time;         // 直近tickの計算結果（秒）
+    private int count;
+
+    PlanetTimeEngine(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        names       = new String[cap];
+        rotation    = new double[cap];
+        rate        = new double[cap];
+        epochOffset = new double[cap];
+        solarRate   = new double[cap];
+        solarOffset = new double[cap];
+        time        = new double[cap];
+    }
+
+    // 天体カタログの全天体を同じ順で登録したエンジン
+    static PlanetTimeEngine of(BodyCatalog catalog) {
+        PlanetTimeEngine e = new PlanetTimeEngine(catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            int b = e.addBody(catalog.name(i), catalog.rotation(i));
+            SolarTime.Coefficients c = SolarTime.forBody(catalog.name(i), catalog.rotation(i));
+            e.setSolar(b, c.rate(), c.offset(catalog.longitude(i)));
+        }
+        return e;
+    }
+
+    // 天体を登録してインデックスを返す
+    int addBody(String name, double rotationSeconds) {
+        return addBody(name, rotationSeconds, 0.0);
+    }
+
+    int addBody(String name, double rotationSeconds, double offsetSeconds) {
+        if (rotationSeconds == 0 || Double.isNaN(rotationSeconds)) {
+            throw new IllegalArgumentException("rotation period must be non-zero: " + name);
+        }
+        if (count == names.length) {
+            int cap = count * 2;
+            names       = Arrays.copyOf(names, cap);
+            rotation    = Arrays.copyOf(rotation, cap);
+            rate        = Arrays.copyOf(rate, cap);
+            epochOffset = Arrays.copyOf(epochOffset, cap);
+            solarRate   = Arrays.copyOf(solarRate, cap);
+            solarOffset = Arrays.copyOf(solarOffset, cap);
+            time        = Arrays.copyOf(time, cap);
+        }
+        int i = count++;
+        names[i]       = name;
+        rotation[i]    = rotationSeconds;
+        rate[i]        = EARTH_DAY / rotationSeconds;
+        epochOffset[i] = offsetSeconds;
+        solarRate[i]   = rate[i];
+        return i;
+    }
+
+    // 平均太陽時の係数（既定は自転周期を1日とみなし J2000 で 00:00）
+    void setSolar(int i, double ratePerSecond, double offsetSeconds) {
+        solarRate[i]   = ratePerSecond;
+        solarOffset[i] = offsetSeconds;
+    }
+
+    // 全天体の時刻を一括計算
+    void tick(double earthSeconds) {
+        final double[] r = rate, o = epochOffset, t = time;
+        for (int i = 0, n = count; i < n; i++) {
+            t[i] = earthSeconds * r[i] + o[i];
+        }
+    }
+
+    // 全天体の本初子午線（またはカタログの経度）の平均太陽時を一括計算
+    void tickSolar(double j2000Seconds) {
+        final double[] r = solarRate, o = solarOffset, t = time;
+        for (int i = 0, n = count; i < n; i++) {
+            t[i] = j2000Seconds * r[i] + o[i];
+        }
+    }
+
+    // 1天体だけ計算（締め切りの来た天体だけを更新する時）
+    void tickBody(int i, double earthSeconds) {
+        time[i] = earthSeconds * rate[i] + epochOffset[i];
+    }
+
+    void tickSolarBody(int i, double j2000Seconds) {
+        time[i] = j2000Seconds * solarRate[i] + solarOffset[i];
+    }
+
+    // 任意の地球時刻について全天体の時刻を out[off..off+size) に書き込む（エンジンの状態は変えない）
+    void computeInto(double earthSeconds, double[] out, int off) {
+        final double[] r = rate, o = epochOffset;
+        for (int i = 0, n = count; i < n; i++) {
+            out[off + i] = earthSeconds * r[i] + o[i];
+        }
+    }
+
+    // computeInto の地方平均太陽時版（J2000 からの秒）
+    void computeSolarInto(double j2000Seconds, double[] out, int off) {
+        final double[] r = solarRate, o = solarOffset;
+        for (int i = 0, n = count; i < n; i++) {
+            out[off + i] = j2000Seconds * r[i] + o[i];
+        }
+    }
+
+    int size()               { return count; }
+    String name(int i)       { return names[i]; }
+    double rotation(int i)   { return rotation[i]; }
+    double rate(int i)       { return rate[i]; }
+    double epochOffset(int i) { return epochOffset[i]; }
+    double solarRate(int i)  { return solarRate[i]; }
+    double solarOffset(int i) { return solarOffset[i]; }
+    double time(int i)       { return time[i]; }
+
+    int indexOf(String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+}
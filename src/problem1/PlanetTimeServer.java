@@ -0,0 +1,238 @@
+package problem1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 現在の天体時刻を配信するローカル HTTP サーバー
+//   GET /times  : 直近 tick のスナップショット（JSON）
+//   GET /events : tick ごとに同じ JSON を server-sent events で送る
+// スナップショットは tick ごとに1回だけバイト列にしておき、リクエストではそれを書き出すだけにする。
+// SSE は購読者ごとに「最新フレーム1つ」の枠を持ち、送るものがある購読者を待ち行列に入れて WRITERS 本の固定スレッドで書き出す。
+// 購読者が何人いてもスレッドは増えない。publish は枠を差し替えて待ち行列に入れるだけなので、
+// 読まないクライアントがいても tick は待たされない。
+// 書き込みが終わる前に次のフレームが来たら古い方は捨て（遅いクライアントには間引いて届く）、
+// 1回の書き込みが STALL_MILLIS を超えて戻らない購読者は切断して書き込みスレッドを取り戻す
+final class PlanetTimeServer implements AutoCloseable {
+
+    private static final byte[] EMPTY = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final long STALL_MILLIS = 2000;
+    private static final int HANDLERS = 2;
+    private static final int WRITERS = 4;
+    private static final int BACKLOG = 1024;   // 既定（50）だと一度に多数繋ぐと SYN の再送待ちで1秒ずつ止まる
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Thread[] writers = new Thread[WRITERS];
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Subscriber> ready = new LinkedBlockingQueue<>();   // 送るフレームがある購読者
+
+    // 公開中のスナップショット（JSON 本体と SSE フレームを組で差し替える）
+    private record Snapshot(byte[] json, byte[] frame) {}
+    private volatile Snapshot current = new Snapshot(EMPTY, sseFrame(EMPTY));
+    private volatile boolean closed;
+
+    // SSE の購読者。queued が立っている間（待ち行列にいるか書き込み中）は書き込みスレッド1本だけが触る
+    private final class Subscriber {
+        final HttpExchange exchange;
+        final OutputStream out;
+        final AtomicReference<byte[]> pending = new AtomicReference<>();   // まだ送っていない最新フレーム
+        final AtomicBoolean queued = new AtomicBoolean();
+        Thread writer;                // 書き込み中のスレッド（this で保護）
+        volatile long writingSince;   // 書き込み中ならその開始時刻（nanoTime）、そうでなければ 0
+        volatile boolean dropped;
+
+        Subscriber(HttpExchange exchange, OutputStream out) {
+            this.exchange = exchange;
+            this.out = out;
+        }
+
+        void offer(byte[] frame) {
+            pending.set(frame);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!dropped && queued.compareAndSet(false, true)) ready.add(this);
+        }
+
+        boolean stalled(long now) {
+            long since = writingSince;
+            return since != 0 && now - since > STALL_MILLIS * 1_000_000L;
+        }
+
+        // 書き込みスレッドから呼ぶ。最新のフレームを1つ書き、その間に次が来ていれば並び直す
+        void write() {
+            byte[] f = pending.getAndSet(null);
+            if (f != null && !dropped) {
+                synchronized (this) {
+                    writer = Thread.currentThread();
+                    writingSince = System.nanoTime();
+                }
+                try {
+                    if (dropped) throw new IOException("dropped");   // drop が writer を見る前に切られていた
+                    out.write(f);
+                    out.flush();
+                } catch (IOException e) {
+                    drop();   // 切断された
+                } finally {
+                    synchronized (this) {
+                        writer = null;
+                        writingSince = 0;
+                    }
+                    Thread.interrupted();   // drop の割り込みを次の購読者に持ち越さない
+                }
+            }
+            if (!dropped) {
+                queued.set(false);
+                if (!dropped) {
+                    if (pending.get() != null) schedule();
+                    return;
+                }
+                // 手放した直後に切られた：閉じるのは drop とこちらのどちらか一方
+                if (!queued.compareAndSet(false, true)) return;
+            }
+            exchange.close();
+        }
+
+        // 書き込みで止まっていれば割り込んで抜けさせる（ソケットのチャネルは割り込みで閉じられ、write が例外で戻る）
+        void drop() {
+            dropped = true;
+            subscribers.remove(this);
+            synchronized (this) {
+                if (writer != null && writer != Thread.currentThread()) writer.interrupt();
+            }
+            // 書き込み中でも待ち行列にもいなければここで閉じる
+            if (queued.compareAndSet(false, true)) exchange.close();
+        }
+    }
+
+    // port 0 なら空きポート。外部には公開しない（ループバックのみ）
+    PlanetTimeServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = Executors.newFixedThreadPool(HANDLERS, r -> daemon(r, "http-handler"));
+        server.setExecutor(executor);
+        for (int i = 0; i < WRITERS; i++) {
+            writers[i] = daemon(this::drain, "sse-writer-" + i);
+        }
+        server.createContext("/times", this::handleTimes);
+        server.createContext("/events", this::handleEvents);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    // 書き込みスレッド本体：送るものがある購読者を順に取り出して書く
+    private void drain() {
+        try {
+            while (!closed) {
+                ready.take().write();
+            }
+        } catch (InterruptedException e) {
+            // close
+        }
+    }
+
+    PlanetTimeServer start() {
+        for (Thread t : writers) t.start();
+        server.start();
+        return this;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // tick ごとに呼ぶ（どのスレッドからでもよい）。body はこれ以降変更しないこと
+    // 購読者の枠を差し替えるだけで書き込みは待たない。止まっている購読者はここで切る
+    void publish(byte[] body) {
+        Snapshot s = new Snapshot(body, sseFrame(body));
+        current = s;
+        long now = System.nanoTime();
+        for (Subscriber sub : subscribers) {
+            if (sub.stalled(now)) {
+                sub.drop();
+            } else {
+                sub.offer(s.frame());
+            }
+        }
+    }
+
+    private static byte[] sseFrame(byte[] body) {
+        byte[] head = "data: ".getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[head.length + body.length + 2];
+        System.arraycopy(head, 0, out, 0, head.length);
+        System.arraycopy(body, 0, out, head.length, body.length);
+        out[out.length - 2] = '\n';
+        out[out.length - 1] = '\n';
+        return out;
+    }
+
+    private void handleTimes(HttpExchange ex) throws IOException {
+        try {
+            if (!ex.getRequestMethod().equals("GET")) {
+                ex.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = current.json();
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.getResponseHeaders().set("Cache-Control", "no-store");
+            ex.sendResponseHeaders(200, body.length);
+            ex.getResponseBody().write(body);
+        } finally {
+            ex.close();
+        }
+    }
+
+    // ヘッダーを送って購読者に加えるだけで戻る。最新のフレームからは書き込みスレッドが送る
+    private void handleEvents(HttpExchange ex) throws IOException {
+        if (!ex.getRequestMethod().equals("GET")) {
+            ex.sendResponseHeaders(405, -1);
+            ex.close();
+            return;
+        }
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        ex.getResponseHeaders().set("Cache-Control", "no-store");
+        ex.sendResponseHeaders(200, 0);
+
+        Subscriber s = new Subscriber(ex, ex.getResponseBody());
+        subscribers.add(s);
+        if (closed) {
+            s.drop();
+            return;
+        }
+        s.offer(current.frame());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscriber s : subscribers) {
+            s.drop();
+        }
+        subscribers.clear();
+        server.stop(0);
+        executor.shutdownNow();
+        for (Thread t : writers) t.interrupt();
+    }
+}
@@ -0,0 +1,169 @@
+package problem1;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 時刻列の一括計算（Swing非依存）
+// 地球時刻 start, start+step, ... (count 個) について全天体のローカル時刻を求める。
+// 天体ごとの時刻は地球時刻の一次式なので、k 番目は base + k × (step × rate) の単純なループになる。
+// int → double 変換を含むループは C2 でベクトル化されないため、0,1,2,... の表（RAMP）を掛ける形にして
+// 自動ベクトル化を効かせる（分岐・除算・剰余なし）。大きな範囲は fork/join で分割する
+final class PlanetTimeline {
+
+    // 時刻の基準
+    enum Basis {
+        MET,     // 地球時刻は MET（秒）、結果は自転周期基準の時刻（PlanetTimeEngine.tick と同じ）
+        SOLAR    // 地球時刻は J2000.0 からの秒（TT）、結果は地方平均太陽時（tickSolar と同じ）
+    }
+
+    private static final double DAY = 86400.0;
+
+    // これより小さい範囲は分割しない（天体数 × サンプル数）
+    private static final int SPLIT_THRESHOLD = 1 << 16;
+
+    // 0, 1, 2, ... BLOCK-1（ブロック単位で base + RAMP[j] × d を計算する）
+    private static final int BLOCK = 1024;
+    private static final double[] RAMP = new double[BLOCK];
+    static {
+        for (int j = 0; j < BLOCK; j++) RAMP[j] = j;
+    }
+
+    private final String[] names;
+    private final double[] rate;
+    private final double[] offset;
+    private final Basis basis;
+
+    // エンジンの係数を写し取る（以後エンジンが差し替わっても影響しない）
+    PlanetTimeline(PlanetTimeEngine engine, Basis basis) {
+        int n = engine.size();
+        this.names = new String[n];
+        this.rate = new double[n];
+        this.offset = new double[n];
+        this.basis = basis;
+        for (int i = 0; i < n; i++) {
+            names[i] = engine.name(i);
+            rate[i] = basis == Basis.SOLAR ? engine.solarRate(i) : engine.rate(i);
+            offset[i] = basis == Basis.SOLAR ? engine.solarOffset(i) : engine.epochOffset(i);
+        }
+    }
+
+    int bodies()          { return names.length; }
+    String name(int body) { return names[body]; }
+    Basis basis()         { return basis; }
+
+    // 全天体 × count サンプル（result[body][k]、秒。1日への正規化はしない）
+    double[][] compute(double start, double step, int count) {
+        double[][] out = new double[names.length][count];
+        computeInto(start, step, count, out);
+        return out;
+    }
+
+    // 確保済みの配列へ（out[body] は count 以上の長さ）
+    void computeInto(double start, double step, int count, double[][] out) {
+        run((b, from, to) -> fill(out[b], from, b, start, step, from, to), count);
+    }
+
+    // 1天体分を out[off..off+count) へ
+    void computeInto(int body, double start, double step, int count, double[] out, int off) {
+        run((b, from, to) -> fill(out, off + from, b, start, step, from, to), count, body, body + 1);
+    }
+
+    // ヒープ外バッファへ天体順（body0 の count 個、body1 の count 個 ...）に書く。
+    // out の position から書き込み、position は進めない
+    void computeInto(double start, double step, int count, DoubleBuffer out) {
+        if (out.remaining() < (long) names.length * count) {
+            throw new IllegalArgumentException("buffer too small: " + out.remaining() + " < " + (long) names.length * count);
+        }
+        int base = out.position();
+        run((b, from, to) -> {
+            // ヒープ上の1ブロックで計算してからまとめて転送
+            double[] block = new double[Math.min(BLOCK, to - from)];
+            for (int k = from; k < to; k += BLOCK) {
+                int n = Math.min(BLOCK, to - k);
+                fill(block, 0, b, start, step, k, k + n);
+                out.put(base + b * count + k, block, 0, n);
+            }
+        }, count);
+    }
+
+    // 天体数 × count 分のネイティブ順ダイレクトバッファ
+    static DoubleBuffer allocateDirect(int bodies, int count) {
+        long bytes = (long) bodies * count * Double.BYTES;
+        if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("too large: " + bytes + " bytes");
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    // from 以降で天体 body の時刻が 1日の中の secondOfDay になる最初の地球時刻（逆向きに進む天体にも対応）
+    // 例) 火星で 09:00 になる次の時刻: nextTime(mars, now, 9 * 3600)
+    double nextTime(int body, double from, double secondOfDay) {
+        double r = rate[body];
+        double t = from * r + offset[body];
+        double target = secondOfDay - Math.floor(secondOfDay / DAY) * DAY;
+        double now = t - Math.floor(t / DAY) * DAY;
+        double ahead = r > 0 ? target - now : now - target;   // 進む向きに何秒（惑星時間）先か
+        if (ahead < 0) ahead += DAY;
+        return from + ahead / Math.abs(r);
+    }
+
+    // k 番目 = t0 + k × d。ブロックごとに base を求め、内側は base + RAMP[j] × d（積和1回、ループ内依存なし）
+    private void fill(double[] out, int at, int b, double start, double step, int from, int to) {
+        double r = rate[b];
+        double t0 = start * r + offset[b];
+        double d = step * r;
+        for (int k = from; k < to; k += BLOCK) {
+            int n = Math.min(BLOCK, to - k);
+            int o = at + (k - from);
+            double base = t0 + k * d;
+            for (int j = 0; j < n; j++) {
+                out[o + j] = base + RAMP[j] * d;
+            }
+        }
+    }
+
+    // 天体 b のサンプル [from, to) を処理する
+    private interface Kernel {
+        void body(int b, int from, int to);
+    }
+
+    private void run(Kernel kernel, int count) {
+        run(kernel, count, 0, names.length);
+    }
+
+    private void run(Kernel kernel, int count, int firstBody, int endBody) {
+        if (count < 0) throw new IllegalArgumentException("count: " + count);
+        int bodies = endBody - firstBody;
+        if ((long) bodies * count <= SPLIT_THRESHOLD) {
+            for (int b = firstBody; b < endBody; b++) kernel.body(b, 0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Split(kernel, firstBody, endBody, 0, count));
+        }
+    }
+
+    // サンプル範囲を半分ずつに分割（各タスクは全天体分を連続で処理してキャッシュを活かす）
+    private static final class Split extends RecursiveAction {
+        private final Kernel kernel;
+        private final int firstBody, endBody, from, to;
+
+        Split(Kernel kernel, int firstBody, int endBody, int from, int to) {
+            this.kernel = kernel;
+            this.firstBody = firstBody;
+            this.endBody = endBody;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (endBody - firstBody) * (to - from) <= SPLIT_THRESHOLD || to - from < 2) {
+                for (int b = firstBody; b < endBody; b++) kernel.body(b, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Split(kernel, firstBody, endBody, from, mid),
+                      new Split(kernel, firstBody, endBody, mid, to));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package problem1;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 直近 N 件のサンプルを保持するリングバッファ型ヒストグラム
+// 書き込みはロックなし（インデックスの確保のみ原子的）、集計は読み手側でコピーしてソートする
+final class RingHistogram {
+
+    // 集計結果（値は記録時の単位のまま）
+    record Summary(long count, long min, long p50, long p90, long p99, long max) {}
+
+    private final String name;
+    private final long[] samples;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    RingHistogram(String name, int capacityPow2) {
+        if (Integer.bitCount(capacityPow2) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacityPow2);
+        }
+        this.name = name;
+        this.samples = new long[capacityPow2];
+        this.mask = capacityPow2 - 1;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long value) {
+        long i = next.getAndIncrement();
+        samples[(int) (i & mask)] = value;
+    }
+
+    // これまでに記録した総数（リングから溢れた分も含む）
+    long totalCount() {
+        return next.get();
+    }
+
+    // 保持中のサンプルを古い順にコピー
+    long[] snapshot() {
+        long end = next.get();
+        int n = (int) Math.min(end, samples.length);
+        long[] out = new long[n];
+        long start = end - n;
+        for (int i = 0; i < n; i++) {
+            out[i] = samples[(int) ((start + i) & mask)];
+        }
+        return out;
+    }
+
+    Summary summary() {
+        long[] s = snapshot();
+        if (s.length == 0) return new Summary(0, 0, 0, 0, 0, 0);
+
+        Arrays.sort(s);
+        return new Summary(totalCount(), s[0],
+                           percentile(s, 0.50), percentile(s, 0.90), percentile(s, 0.99),
+                           s[s.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))];
+    }
+}
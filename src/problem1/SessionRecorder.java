@@ -0,0 +1,170 @@
+package problem1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// セッションの記録（--record=DIR）。HUD が何を表示したかを後から再生できるようにする
+// 表示に使った入力（tick ごとの地球側の秒・時間基準・倍率・一時停止・都市）を、モード・都市・倍率の切り替えと
+// 一緒に 32 バイト固定長のレコードとしてメモリマップしたセグメントへ追記する。
+// どのレコードも表示の状態をすべて持つので、どの位置からでも再生を始められる（SessionReplay）。
+// 1レコードの書き込みはマップ済みのバッファへの put だけで、システムコールはセグメントの切り替えと索引の追記の時だけ
+//
+//   DIR/segment-000000.log ...  先頭 32 バイトはヘッダ（long magic, long 記録開始のエポックミリ秒, long 先頭レコードの通し番号, long 0）
+//     レコード（ビッグエンディアン）:
+//       long 記録開始からの経過ナノ秒, double 地球側の秒（エンジンへの入力。SOLAR は J2000 からの秒）, double 倍率,
+//       byte 種別, byte 時間基準, byte flags(bit0: 一時停止, bit1: 地方平均太陽時で計算), byte 0, int 都市番号
+//     未使用の末尾は 0 埋め（種別 0）
+//   DIR/index   INDEX_STRIDE レコードごとの long 経過ナノ秒, long 通し番号
+//   DIR/cities  都市番号の順に "都市名\tゾーンID" の行
+final class SessionRecorder implements AutoCloseable {
+
+    static final int RECORD = 32;
+    static final long MAGIC = 0x5048435245433031L;        // "PHCREC01"
+    static final int INDEX_STRIDE = 4096;
+    static final long DEFAULT_SEGMENT_BYTES = 64L << 20;  // 約200万レコード（60tick/秒で約9時間）
+
+    // 種別
+    static final byte TICK  = 1;   // 時計の計算
+    static final byte MODE  = 2;   // 時間基準の切り替え
+    static final byte CITY  = 3;   // 都市の切り替え
+    static final byte RATE  = 4;   // 倍率・一時停止の変更
+    static final byte START = 5;   // 記録開始時の状態
+
+    static Path segmentPath(Path dir, int n) {
+        return dir.resolve(String.format("segment-%06d.log", n));
+    }
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+
+    private MappedByteBuffer segment;
+    private int segmentNumber = -1;
+    private int position;          // セグメント内の次のレコードの位置
+    private long count;            // 書いたレコード数（通し番号）
+
+    private final FileChannel index;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(16);
+
+    private final FileChannel cityFile;
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private String lastName, lastZone;   // 直前の都市（同じ文字列なら表を引かない）
+    private int lastCity;
+
+    private volatile boolean closed;
+
+    private SessionRecorder(Path dir, long segmentBytes) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        index = FileChannel.open(dir.resolve("index"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        cityFile = FileChannel.open(dir.resolve("cities"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        nextSegment();
+    }
+
+    // dir に新しいセッションを作る（既に記録があるディレクトリには書かない）
+    static SessionRecorder create(Path dir) throws IOException {
+        return create(dir, DEFAULT_SEGMENT_BYTES);
+    }
+
+    static SessionRecorder create(Path dir, long segmentBytes) throws IOException {
+        if (segmentBytes < 2 * RECORD || segmentBytes > Integer.MAX_VALUE || segmentBytes % RECORD != 0) {
+            throw new IllegalArgumentException("segment size: " + segmentBytes);
+        }
+        Files.createDirectories(dir);
+        if (Files.exists(segmentPath(dir, 0))) {
+            throw new IOException("already contains a session: " + dir);
+        }
+        return new SessionRecorder(dir, segmentBytes);
+    }
+
+    long count() {
+        return count;
+    }
+
+    // 1レコードを追記する（記録を始めたスレッド、HUD では EDT からだけ呼ぶ）
+    void record(byte type, double earthSeconds, int timeBase, double rate, boolean paused, boolean solar,
+                String cityName, String zoneId) {
+        if (closed) return;
+        try {
+            if (position == segment.capacity()) nextSegment();
+            long t = System.nanoTime() - startNanos;
+            int city = cityId(cityName, zoneId);
+
+            MappedByteBuffer b = segment;
+            int p = position;
+            b.putLong(p, t);
+            b.putDouble(p + 8, earthSeconds);
+            b.putDouble(p + 16, rate);
+            b.putInt(p + 28, city);
+            // 種別は最後に書く（0 の間は未使用として読まれる）
+            b.put(p + 25, (byte) timeBase);
+            b.put(p + 26, (byte) ((paused ? 1 : 0) | (solar ? 2 : 0)));
+            b.put(p + 24, type);
+            position = p + RECORD;
+
+            if (count % INDEX_STRIDE == 0) {
+                indexEntry.clear();
+                indexEntry.putLong(t).putLong(count).flip();
+                index.write(indexEntry);
+            }
+            count++;
+        } catch (IOException e) {
+            // ディスクが一杯などでは記録だけやめて表示は続ける
+            System.err.println("record: " + e.getMessage());
+            close();
+        }
+    }
+
+    private int cityId(String name, String zone) throws IOException {
+        if (name == lastName && zone == lastZone) return lastCity;
+        String key = name + '\t' + zone;
+        Integer id = cityIds.get(key);
+        if (id == null) {
+            id = cityIds.size();
+            cityIds.put(key, id);
+            cityFile.write(ByteBuffer.wrap((key + '\n').getBytes(StandardCharsets.UTF_8)));
+        }
+        lastName = name;
+        lastZone = zone;
+        lastCity = id;
+        return id;
+    }
+
+    // 次のセグメントを作ってマップし、ヘッダを書く
+    private void nextSegment() throws IOException {
+        if (segment != null) segment.force();
+        segmentNumber++;
+        try (FileChannel ch = FileChannel.open(segmentPath(dir, segmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segment.putLong(0, MAGIC);
+        segment.putLong(8, startMillis);
+        segment.putLong(16, count);
+        position = RECORD;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            segment.force();
+            index.close();
+            cityFile.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
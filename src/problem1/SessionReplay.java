@@ -0,0 +1,175 @@
+package problem1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// 記録したセッションの読み出し（--replay=DIR）。形式は SessionRecorder を参照
+// セグメントは必要になった時に読み取り専用でマップする。レコードは固定長なので通し番号から位置が決まり、
+// 時刻での頭出しは索引で INDEX_STRIDE レコードの範囲まで絞ってからその中を二分探索する
+// （数GBのログでも触るのは索引と1〜2セグメントの数ページだけ）。索引が末尾まで追いついていなければ残りを二分探索する
+final class SessionReplay {
+
+    private static final int RECORD = SessionRecorder.RECORD;
+
+    private final Path dir;
+    private final MappedByteBuffer[] segments;
+    private final long perSegment;     // 1セグメントのレコード数
+    private final long size;           // 全レコード数
+    private final long startMillis;
+    private final long[] indexNanos;
+    private final long[] indexRecord;
+    private final List<String[]> cities = new ArrayList<>();
+
+    // 現在位置（最後に読んだレコード）
+    private long current = -1;
+    private MappedByteBuffer buf;
+    private int pos;
+
+    private SessionReplay(Path dir, int segmentCount, long segmentBytes) throws IOException {
+        this.dir = dir;
+        this.segments = new MappedByteBuffer[segmentCount];
+        this.perSegment = segmentBytes / RECORD - 1;
+
+        MappedByteBuffer first = segment(0);
+        if (first.getLong(0) != SessionRecorder.MAGIC) {
+            throw new IOException("not a session log: " + SessionRecorder.segmentPath(dir, 0));
+        }
+        startMillis = first.getLong(8);
+
+        // 最後のセグメントは未使用の末尾（種別 0）の手前まで
+        int lastSeg = segmentCount - 1;
+        MappedByteBuffer last = segment(lastSeg);
+        long lo = 0, hi = perSegment;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (last.get((int) ((mid + 1) * RECORD) + 24) != 0) lo = mid + 1; else hi = mid;
+        }
+        size = lastSeg * perSegment + lo;
+
+        // 索引（書きかけの末尾は捨てる）
+        Path indexFile = dir.resolve("index");
+        ByteBuffer idx = ByteBuffer.wrap(Files.exists(indexFile) ? Files.readAllBytes(indexFile) : new byte[0]);
+        int n = idx.remaining() / 16;
+        long[] nanos = new long[n];
+        long[] record = new long[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            long t = idx.getLong();
+            long r = idx.getLong();
+            if (r >= size) break;
+            nanos[k] = t;
+            record[k++] = r;
+        }
+        indexNanos = Arrays.copyOf(nanos, k);
+        indexRecord = Arrays.copyOf(record, k);
+
+        readCities();
+    }
+
+    static SessionReplay open(Path dir) throws IOException {
+        int count = 0;
+        while (Files.exists(SessionRecorder.segmentPath(dir, count))) count++;
+        if (count == 0) throw new IOException("no session log: " + dir);
+        return new SessionReplay(dir, count, Files.size(SessionRecorder.segmentPath(dir, 0)));
+    }
+
+    private MappedByteBuffer segment(int n) throws IOException {
+        MappedByteBuffer b = segments[n];
+        if (b == null) {
+            try (FileChannel ch = FileChannel.open(SessionRecorder.segmentPath(dir, n))) {
+                b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            segments[n] = b;
+        }
+        return b;
+    }
+
+    private void readCities() throws IOException {
+        Path file = dir.resolve("cities");
+        if (!Files.exists(file)) return;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab >= 0) cities.add(new String[] { line.substring(0, tab), line.substring(tab + 1) });
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    // 最後のレコードの経過ナノ秒
+    long durationNanos() throws IOException {
+        return size == 0 ? 0 : nanosAt(size - 1);
+    }
+
+    private long nanosAt(long r) throws IOException {
+        return segment((int) (r / perSegment)).getLong((int) ((r % perSegment + 1) * RECORD));
+    }
+
+    // 経過ナノ秒 t の時点で表示されていたレコード（t 以前で最後のもの。最初のレコードより前なら 0）
+    long floor(long t) throws IOException {
+        // 索引で t 以下の最後の項目を探し、その次の項目までに絞る
+        int a = 0, b = indexNanos.length;
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (indexNanos[mid] <= t) a = mid + 1; else b = mid;
+        }
+        long lo = a > 0 ? indexRecord[a - 1] : 0;
+        long hi = a < indexRecord.length ? indexRecord[a] : size;
+
+        // [lo, hi) で t を超える最初のレコード
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (nanosAt(mid) <= t) lo = mid + 1; else hi = mid;
+        }
+        return Math.max(0, lo - 1);
+    }
+
+    // 次に advance で読むレコードを r にする
+    void seek(long r) {
+        current = r - 1;
+    }
+
+    // 経過ナノ秒 t まで進める（進んだら true。現在位置は t 以前で最後のレコード）
+    // どのレコードも表示の状態をすべて持つので、高速再生で飛ばしたレコードを1つずつ適用する必要はない
+    boolean advance(long t) throws IOException {
+        if (current + 1 >= size || nanosAt(current + 1) > t) return false;
+        current = floor(t);
+        buf = segment((int) (current / perSegment));
+        pos = (int) ((current % perSegment + 1) * RECORD);
+        return true;
+    }
+
+    boolean atEnd() {
+        return current + 1 >= size;
+    }
+
+    // 現在のレコード
+    long position()       { return current; }
+    long nanos()          { return buf.getLong(pos); }
+    double earthSeconds() { return buf.getDouble(pos + 8); }
+    double rate()         { return buf.getDouble(pos + 16); }
+    byte type()           { return buf.get(pos + 24); }
+    int timeBase()        { return buf.get(pos + 25); }
+    boolean paused()      { return (buf.get(pos + 26) & 1) != 0; }
+    boolean solar()       { return (buf.get(pos + 26) & 2) != 0; }
+
+    // 記録した時点の壁時計（記録開始の時刻 + 経過時間）
+    long wallMillis() {
+        return startMillis + nanos() / 1_000_000L;
+    }
+
+    // 都市名・ゾーンID（表にない番号なら null）
+    String[] city() {
+        int id = buf.getInt(pos + 28);
+        return id >= 0 && id < cities.size() ? cities.get(id) : null;
+    }
+}
@@ -0,0 +1,198 @@
+package problem1;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+// 流れ星パーティクル
+// 位置・速度・寿命をプリミティブ配列（struct of arrays）で保持する固定容量のプール。
+// 消えた粒子は末尾と入れ替えて詰めるので、更新・描画ともアロケーションなし
+final class ShootingStarSystem {
+
+    private static final int ALPHA_LEVELS = 32;
+    private static final int PER_STAR_DIRTY_LIMIT = 64;   // これを超えたら再描画範囲を1矩形にまとめる
+
+    private static final BasicStroke STROKE = new BasicStroke(2f);
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[ALPHA_LEVELS + 1];
+
+    static {
+        for (int i = 0; i <= ALPHA_LEVELS; i++) {
+            COMPOSITES[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / (float) ALPHA_LEVELS);
+        }
+    }
+
+    private final float[] x, y, vx, vy;
+    private final int[] life, maxLife;
+    private final int capacity;
+    private int count;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    // 発生設定（既定値は従来どおり 1% / 60tick クールダウン / 1個ずつ）
+    private double spawnChance = 0.01;
+    private int cooldownTicks = 60;
+    private int spawnBatch = 1;
+    private int cooldown;
+
+    ShootingStarSystem(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+    }
+
+    void setSpawnRate(double chance, int cooldownTicks, int batch) {
+        this.spawnChance = chance;
+        this.cooldownTicks = Math.max(0, cooldownTicks);
+        this.spawnBatch = Math.max(1, batch);
+    }
+
+    int size()     { return count; }
+    int capacity() { return capacity; }
+
+    // 1個発生（満杯なら何もしない）
+    boolean spawn(int w, int h) {
+        if (count == capacity) return false;
+
+        int i = count++;
+        // 画面外から出現
+        x[i] = (float) (random.nextDouble() * w);
+        y[i] = -50;
+
+        vx[i] = -6f - (float) random.nextDouble() * 4f;
+        vy[i] = 6f + (float) random.nextDouble() * 4f;
+
+        maxLife[i] = 40 + random.nextInt(20);
+        life[i] = maxLife[i];
+        return true;
+    }
+
+    // 流星群（まとめて n 個発生、出現高さを少しずらして一斉に見えないようにする）
+    int burst(int n, int w, int h) {
+        int spawned = 0;
+        for (int k = 0; k < n && spawn(w, h); k++) {
+            y[count - 1] -= (float) (random.nextDouble() * 150);
+            spawned++;
+        }
+        return spawned;
+    }
+
+    // 1tick進める。移動前後の描画範囲を scheduler に登録する
+    void update(int w, int h, FrameScheduler scheduler) {
+
+        // クールダウン
+        if (cooldown > 0) {
+            cooldown--;
+        } else if (random.nextDouble() < spawnChance) {
+            burst(spawnBatch, w, h);
+            cooldown = cooldownTicks;
+        }
+
+        boolean perStar = count <= PER_STAR_DIRTY_LIMIT;
+        int ux0 = Integer.MAX_VALUE, uy0 = Integer.MAX_VALUE;
+        int ux1 = Integer.MIN_VALUE, uy1 = Integer.MIN_VALUE;
+
+        // 更新＆削除
+        int i = 0;
+        while (i < count) {
+            for (int pass = 0; pass < 2; pass++) {
+                // pass 0: 移動前, pass 1: 移動後（生存時のみ）
+                if (pass == 1) {
+                    x[i] += vx[i];
+                    y[i] += vy[i];
+                    if (--life[i] <= 0) break;
+                }
+                int tx = (int) (x[i] - vx[i] * 4);
+                int ty = (int) (y[i] - vy[i] * 4);
+                int x0 = Math.min((int) x[i], tx) - 2;
+                int y0 = Math.min((int) y[i], ty) - 2;
+                int x1 = Math.max((int) x[i], tx) + 3;
+                int y1 = Math.max((int) y[i], ty) + 3;
+                if (perStar) {
+                    if (scheduler != null) scheduler.markDirty(x0, y0, x1 - x0, y1 - y0);
+                } else {
+                    ux0 = Math.min(ux0, x0); uy0 = Math.min(uy0, y0);
+                    ux1 = Math.max(ux1, x1); uy1 = Math.max(uy1, y1);
+                }
+            }
+
+            if (life[i] <= 0) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+
+        if (!perStar && scheduler != null && ux0 <= ux1) {
+            scheduler.markDirty(ux0, uy0, ux1 - ux0, uy1 - uy0);
+        }
+    }
+
+    void draw(Graphics2D g2) {
+        draw(g2, 1f);
+    }
+
+    // draw(g2) で r に掛かる粒子があるか
+    boolean intersects(Rectangle r) {
+        int rx1 = r.x + r.width, ry1 = r.y + r.height;
+        for (int i = 0; i < count; i++) {
+            float tx = x[i] - vx[i] * 4, ty = y[i] - vy[i] * 4;
+            if (Math.min(x[i], tx) - 2 < rx1 && Math.max(x[i], tx) + 3 > r.x
+                    && Math.min(y[i], ty) - 2 < ry1 && Math.max(y[i], ty) + 3 > r.y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // alpha: 直前の tick から次の tick までの経過割合（0..1）。1tick より細かい間隔で描く時に位置を補間する
+    void draw(Graphics2D g2, float alpha) {
+        if (count == 0) return;
+
+        float back = 1f - alpha;
+
+        Composite old = g2.getComposite();
+        g2.setStroke(STROKE);
+        g2.setColor(Color.WHITE);
+
+        int level = -1;
+        for (int i = 0; i < count; i++) {
+            int a = life[i] * ALPHA_LEVELS / maxLife[i];
+            if (a != level) {
+                level = a;
+                g2.setComposite(COMPOSITES[a]);
+            }
+
+            // 尾
+            float hx = x[i] - vx[i] * back;
+            float hy = y[i] - vy[i] * back;
+            g2.drawLine(
+                (int) hx,
+                (int) hy,
+                (int) (hx - vx[i] * 4),
+                (int) (hy - vy[i] * 4)
+            );
+        }
+
+        g2.setComposite(old);
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    // 末尾の粒子で穴を埋める
+    private void removeAt(int i) {
+        int last = --count;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            life[i] = life[last];
+            maxLife[i] = maxLife[last];
+        }
+    }
+}
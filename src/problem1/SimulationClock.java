@@ -0,0 +1,124 @@
+package problem1;
+
+import java.util.function.LongSupplier;
+
+// シミュレーション時計（MET: Mission Elapsed Time）
+// System.nanoTime を基準にするので壁時計の補正（NTP）で飛ばない。
+// 倍率変更・一時停止のたびに経過分をアンカーへ畳み込み、位相を保ったまま進み方だけを変える。
+// 累積METは整数秒(long)＋端数(double)で持ち、長時間・高倍率でも分解能が落ちない
+final class SimulationClock {
+
+    private static final double NANOS = 1_000_000_000.0;
+
+    private final LongSupplier nanoTime;
+
+    private long anchorNanos;        // アンカー時点の nanoTime
+    private long anchorWhole;        // アンカー時点の MET 整数秒
+    private double anchorFraction;   // アンカー時点の MET 端数 [0, 1)
+    private double rate = 1.0;
+    private double slew;             // 同期用の補正（MET秒/秒、rate には含めない）
+    private boolean paused;
+
+    SimulationClock() {
+        this(System::nanoTime);
+    }
+
+    SimulationClock(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.anchorNanos = nanoTime.getAsLong();
+    }
+
+    // 現在のMET（秒）
+    synchronized double metSeconds() {
+        return anchorWhole + (anchorFraction + elapsed(nanoTime.getAsLong()));
+    }
+
+    // 現在のMETの整数秒部分（double の丸めを受けない）
+    synchronized long metWholeSeconds() {
+        double f = anchorFraction + elapsed(nanoTime.getAsLong());
+        return anchorWhole + (long) Math.floor(f);
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+
+    // 実時間1秒あたりに MET が進む量（一時停止中は 0、同期の補正を含む）
+    synchronized double speed() {
+        return paused ? 0.0 : rate + slew;
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    // 倍率変更（METは連続したまま）
+    synchronized void setRate(double newRate) {
+        if (Double.isNaN(newRate) || Double.isInfinite(newRate)) {
+            throw new IllegalArgumentException("rate: " + newRate);
+        }
+        rebase();
+        rate = newRate;
+    }
+
+    synchronized void pause() {
+        if (paused) return;
+        rebase();
+        paused = true;
+    }
+
+    synchronized void resume() {
+        if (!paused) return;
+        anchorNanos = nanoTime.getAsLong();
+        paused = false;
+    }
+
+    // MET を指定値に合わせる（同期・リセット用）
+    synchronized void setMetSeconds(double met) {
+        anchorNanos = nanoTime.getAsLong();
+        anchorWhole = (long) Math.floor(met);
+        anchorFraction = met - anchorWhole;
+    }
+
+    // 補正の速さ（MET秒/秒）。表示上の倍率は変えずに、ずれを時間をかけて詰める
+    synchronized void setSlew(double metPerSecond) {
+        if (Double.isNaN(metPerSecond) || Double.isInfinite(metPerSecond)) {
+            throw new IllegalArgumentException("slew: " + metPerSecond);
+        }
+        rebase();
+        slew = metPerSecond;
+    }
+
+    synchronized double slew() {
+        return slew;
+    }
+
+    // 現在値に delta 秒を加える（位相の微調整用）
+    synchronized void adjust(double deltaSeconds) {
+        rebase();
+        anchorFraction += deltaSeconds;
+        normalize();
+    }
+
+    synchronized void reset() {
+        setMetSeconds(0);
+    }
+
+    private double elapsed(long now) {
+        return paused ? 0.0 : (now - anchorNanos) / NANOS * (rate + slew);
+    }
+
+    // 経過分をアンカーへ畳み込む
+    private void rebase() {
+        long now = nanoTime.getAsLong();
+        anchorFraction += elapsed(now);
+        anchorNanos = now;
+        normalize();
+    }
+
+    private void normalize() {
+        double whole = Math.floor(anchorFraction);
+        anchorWhole += (long) whole;
+        anchorFraction -= whole;
+    }
+}
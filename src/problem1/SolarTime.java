@@ -0,0 +1,80 @@
+package problem1;
+
+import java.util.Locale;
+import java.util.Map;
+
+// 地方平均太陽時（J2000 起点）
+// 天体ごとに「本初子午線の平均太陽時 = c0 + c1 × d（時、d は J2000 TT からの日数）」の係数を起動時に一度だけ求め、
+// エンジンには「1秒あたりの進み」と「J2000 での位相」として渡す（毎tickは積和1回）。
+//   地球 : UTC（平均太陽時）
+//   月   : 太陽との平均離角 D（新月で表側が真夜中）
+//   火星 : MTC（Allison & McEwen 2000）
+//   その他 : IAU の自転角 W = W0 + Ẇ·d と平均黄経 L から (W − L) / 15
+//            （自転軸の節と黄道の差は無視するので、速さは正確だが位相は近似）
+final class SolarTime {
+
+    // J2000.0 = 2000-01-01T12:00:00 TT（TT の暦を UNIX 秒で数えた値）
+    private static final double J2000_TT_UNIX = 946_728_000.0;
+
+    // TT − UTC（うるう秒 37 + 32.184、2017年以降）
+    private static final double TT_MINUS_UTC = 69.184;
+
+    private static final double DAY = 86400.0;
+    private static final double CENTURY_DAYS = 36525.0;
+
+    // 時・時/日
+    record Coefficients(double c0, double c1) {
+
+        // エンジン用: 地球時間1秒あたりの進み（秒）
+        double rate() {
+            return c1 / 24.0;
+        }
+
+        // エンジン用: J2000 での時刻（秒、経度 east 度を加える）
+        double offset(double longitudeEast) {
+            double h = c0 + longitudeEast / 15.0;
+            return ((h % 24.0 + 24.0) % 24.0) * 3600.0;
+        }
+    }
+
+    private static final Map<String, Coefficients> KNOWN = Map.of(
+        "mercury", fromIau(329.5988,  6.1385108,   252.25032350, 149472.67411175),
+        "venus",   fromIau(160.20,   -1.4813688,   181.97909950,  58517.81538729),
+        "earth",   new Coefficients(12.0 - TT_MINUS_UTC / 3600.0, 24.0),
+        "moon",    new Coefficients(297.8501921 / 15.0, 445267.1114034 / CENTURY_DAYS / 15.0),
+        "mars",    mtc(),
+        "jupiter", fromIau(284.95,    870.5360000,  34.39644051,   3034.74612775),
+        "saturn",  fromIau(38.90,     810.7939024,  49.95424423,   1222.49362201),
+        "uranus",  fromIau(203.81,   -501.1600928, 313.23810451,    428.48202785),
+        "neptune", fromIau(249.978,   541.1397757, -55.12002969,    218.45945325),
+        "pluto",   fromIau(302.695,    56.3625225, 238.92903833,    145.20780515)
+    );
+
+    private SolarTime() {}
+
+    // J2000.0 からの経過秒（TT）
+    static double j2000Seconds(long epochMillis) {
+        return epochMillis / 1000.0 + TT_MINUS_UTC - J2000_TT_UNIX;
+    }
+
+    // 天体名から係数を引く。表にない天体は自転周期をそのまま1日とみなす（J2000 で 00:00）
+    static Coefficients forBody(String name, double rotationSeconds) {
+        Coefficients c = KNOWN.get(name.toLowerCase(Locale.ROOT));
+        if (c != null) return c;
+        return new Coefficients(0.0, 24.0 * DAY / rotationSeconds);
+    }
+
+    // W0, Ẇ（度, 度/日）と平均黄経 L0, L1（度, 度/世紀）から
+    private static Coefficients fromIau(double w0, double wDot, double l0, double l1) {
+        double c0 = (w0 - l0) / 15.0;
+        double c1 = (wDot - l1 / CENTURY_DAYS) / 15.0;
+        return new Coefficients(c0, c1);
+    }
+
+    // MSD = (JD_TT − 2405522.0028779) / 1.0274912517、MTC = 24 × frac(MSD)
+    private static Coefficients mtc() {
+        double sol = 1.0274912517;
+        double msdAtJ2000 = (2451545.0 - 2405522.0028779) / sol;
+        return new Coefficients(24.0 * (msdAtJ2000 % 1.0), 24.0 / sol);
+    }
+}
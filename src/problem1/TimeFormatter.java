@@ -0,0 +1,113 @@
+package problem1;
+
+// 時刻フォーマッタ（HH:MM:SS[.ss]）
+// String.format を使わず、呼び出し側が用意した char[] に直接書き込む
+final class TimeFormatter {
+
+    // 秒以下の表示精度
+    enum Precision {
+        SECONDS(0, 1),
+        CENTISECONDS(2, 100),
+        MILLISECONDS(3, 1000);
+
+        final int digits;
+        final long unitsPerSecond;
+
+        Precision(int digits, long unitsPerSecond) {
+            this.digits = digits;
+            this.unitsPerSecond = unitsPerSecond;
+        }
+
+        // "s" / "cs" / "ms" から変換（不明な値は CENTISECONDS）
+        static Precision parse(String s) {
+            return switch (s == null ? "" : s.trim().toLowerCase()) {
+                case "s", "sec", "seconds"       -> SECONDS;
+                case "ms", "milli", "millis"     -> MILLISECONDS;
+                default                          -> CENTISECONDS;
+            };
+        }
+    }
+
+    static final int MAX_LENGTH = 12;   // "HH:MM:SS.mmm"
+
+    private static final double DAY = 86400.0;
+
+    private final Precision precision;
+    private final long unitsPerDay;
+
+    TimeFormatter(Precision precision) {
+        this.precision = precision;
+        this.unitsPerDay = 86400L * precision.unitsPerSecond;
+    }
+
+    Precision precision() { return precision; }
+
+    // 出力文字数（精度ごとに固定）
+    int length() {
+        return precision.digits == 0 ? 8 : 9 + precision.digits;
+    }
+
+    // 1日の範囲に正規化した秒を out に書き込み、文字数を返す
+    int format(double sec, char[] out) {
+        int len = length();
+
+        if (Double.isNaN(sec) || Double.isInfinite(sec)) {
+            for (int i = 0; i < len; i++) out[i] = '-';
+            out[2] = ':';
+            out[5] = ':';
+            if (len > 8) out[8] = '.';
+            return len;
+        }
+
+        double t = normalize(sec);
+
+        // 表示単位で丸めてから桁に分解（59.999 → 1:00.00 のように繰り上げる）
+        long units = Math.round(t * precision.unitsPerSecond);
+        if (units >= unitsPerDay) units -= unitsPerDay;
+
+        long total = units / precision.unitsPerSecond;
+        long frac  = units % precision.unitsPerSecond;
+
+        int h = (int) (total / 3600);
+        int m = (int) ((total % 3600) / 60);
+        int s = (int) (total % 60);
+
+        put2(out, 0, h);
+        out[2] = ':';
+        put2(out, 3, m);
+        out[5] = ':';
+        put2(out, 6, s);
+
+        if (precision.digits > 0) {
+            out[8] = '.';
+            for (int i = 8 + precision.digits; i > 8; i--) {
+                out[i] = (char) ('0' + frac % 10);
+                frac /= 10;
+            }
+        }
+        return len;
+    }
+
+    // 表示が次に変わるまでの秒数（speed: 1秒あたりに sec が進む量。止まっていれば +∞）
+    // format は表示単位で四捨五入するので、境界は単位の半端（k + 0.5）
+    double secondsUntilChange(double sec, double speed) {
+        if (speed == 0 || Double.isNaN(speed) || Double.isNaN(sec) || Double.isInfinite(sec)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double u = precision.unitsPerSecond;
+        double x = normalize(sec) * u;
+        double boundary = speed > 0 ? Math.floor(x + 0.5) + 0.5 : Math.ceil(x - 0.5) - 0.5;
+        return Math.abs(boundary - x) / (Math.abs(speed) * u);
+    }
+
+    // 0 以上 1日未満へ。正の値に 1日を足してから割ると下の桁が落ちる（59.995 が 59.99499999999534 になる）ので、足すのは負の時だけ
+    private static double normalize(double sec) {
+        double t = sec % DAY;
+        return t < 0 ? t + DAY : t;
+    }
+
+    private static void put2(char[] out, int at, int v) {
+        out[at]     = (char) ('0' + v / 10);
+        out[at + 1] = (char) ('0' + v % 10);
+    }
+}
@@ -0,0 +1,68 @@
+package problem1;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+// タイムゾーンのUTCオフセットキャッシュ
+// 現在のオフセットと次の切り替わり時刻（夏時間など）を ZoneRules から一度だけ引き、
+// 切り替わりまでは「時計の読み取り＋オフセット加算」だけで現地の時刻を求める。
+// EDT など単一スレッドからの利用を想定（スレッドセーフではない）
+final class ZoneOffsetCache {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+
+    private long validFrom = Long.MAX_VALUE;   // このオフセットが有効な範囲 [validFrom, validUntil)
+    private long validUntil = Long.MIN_VALUE;
+    private long offsetMillis;
+
+    ZoneOffsetCache(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+    }
+
+    ZoneId zone() {
+        return zone;
+    }
+
+    // 指定時刻（エポックミリ秒）のUTCオフセット（ミリ秒）
+    long offsetMillis(long epochMillis) {
+        if (epochMillis < validFrom || epochMillis >= validUntil) {
+            refresh(epochMillis);
+        }
+        return offsetMillis;
+    }
+
+    // 現地時刻の0時からの経過秒（小数付き）
+    double secondOfDay(long epochMillis) {
+        long local = epochMillis + offsetMillis(epochMillis);
+        return Math.floorMod(local, DAY_MILLIS) / 1000.0;
+    }
+
+    double secondOfDayNow() {
+        return secondOfDay(System.currentTimeMillis());
+    }
+
+    // オフセットと有効範囲を引き直す
+    private void refresh(long epochMillis) {
+        Instant at = Instant.ofEpochMilli(epochMillis);
+        offsetMillis = rules.getOffset(at).getTotalSeconds() * 1000L;
+
+        if (rules.isFixedOffset()) {
+            validFrom = Long.MIN_VALUE;
+            validUntil = Long.MAX_VALUE;
+            return;
+        }
+
+        ZoneOffsetTransition next = rules.nextTransition(at);
+        validUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000L;
+
+        // 直前の切り替わり（at 自身が切り替わり時刻なら at から有効）
+        ZoneOffsetTransition prev = rules.previousTransition(at.plusMillis(1));
+        validFrom = prev == null ? Long.MIN_VALUE : Math.min(epochMillis, prev.toEpochSecond() * 1000L);
+    }
+}
@@ -0,0 +1,109 @@
+package problem1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 127.0.0.1 のユニキャストでマスターとフォロワーを同じプロセス内に立てる
+class ClockSyncTest {
+
+    private final SimulationClock masterClock = new SimulationClock();
+    private final SimulationClock followerClock = new SimulationClock();
+    private final AtomicReference<ClockSync.Mode> received = new AtomicReference<>();
+    private ClockSync master, follower;
+
+    @BeforeEach
+    void start() throws Exception {
+        int port;
+        try (DatagramSocket s = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            port = s.getLocalPort();
+        }
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        follower = ClockSync.follower(followerClock, address, received::set);
+        master = ClockSync.master(masterClock, List.of(address), new ClockSync.Mode(0, "Tokyo", "Asia/Tokyo"));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        master.close();
+        follower.close();
+    }
+
+    // 条件が成り立つまで最大 millis 待つ
+    private static boolean await(BooleanSupplier condition, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+
+    private double difference() {
+        return masterClock.metSeconds() - followerClock.metSeconds();
+    }
+
+    @Test
+    void stepsToMasterOnFirstPacket() throws Exception {
+        masterClock.adjust(1000);
+        assertTrue(await(() -> Math.abs(difference()) < 0.05, 2000), () -> "difference " + difference());
+    }
+
+    // STEP_SECONDS 未満のずれは一度に合わせず slew で詰める
+    @Test
+    void convergesBySlew() throws Exception {
+        assertTrue(await(() -> Math.abs(difference()) < 0.05, 2000));
+        Thread.sleep(200);
+        followerClock.adjust(-0.1);
+
+        assertTrue(await(() -> followerClock.slew() > 0, 2000), "slew not started");
+        assertTrue(await(() -> Math.abs(difference()) < 0.02, 4000), () -> "difference " + difference());
+    }
+
+    // マスターが止まったら slew は SLEW_SECONDS で切れる
+    @Test
+    void slewExpiresWhenMasterStops() throws Exception {
+        assertTrue(await(() -> Math.abs(difference()) < 0.05, 2000));
+        Thread.sleep(200);
+        followerClock.adjust(-0.1);
+        assertTrue(await(() -> followerClock.slew() != 0, 2000), "slew not started");
+
+        master.close();
+        assertTrue(await(() -> followerClock.slew() == 0, 2500), () -> "slew " + followerClock.slew());
+    }
+
+    @Test
+    void propagatesRateAndPause() throws Exception {
+        masterClock.setRate(10);
+        assertTrue(await(() -> followerClock.rate() == 10, 2000));
+
+        masterClock.pause();
+        assertTrue(await(followerClock::isPaused, 2000));
+        double met = masterClock.metSeconds();
+        assertTrue(await(() -> Math.abs(followerClock.metSeconds() - met) < 1e-6, 2000),
+            () -> "paused at " + met + " but follower is " + followerClock.metSeconds());
+
+        masterClock.resume();
+        assertTrue(await(() -> !followerClock.isPaused(), 2000));
+    }
+
+    @Test
+    void propagatesMode() throws Exception {
+        assertTrue(await(() -> received.get() != null, 2000));
+        assertEquals(new ClockSync.Mode(0, "Tokyo", "Asia/Tokyo"), received.get());
+
+        master.modeChanged(new ClockSync.Mode(1, "London", "Europe/London"));
+        assertTrue(await(() -> received.get().timeBase() == 1, 2000));
+        assertEquals(new ClockSync.Mode(1, "London", "Europe/London"), received.get());
+    }
+}
@@ -0,0 +1,152 @@
+package problem1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 読まない SSE クライアントがいても、他の購読者と publish が止まらないこと
+class PlanetTimeServerTest {
+
+    private PlanetTimeServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new PlanetTimeServer(0).start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    private Socket subscribe(int receiveBuffer) throws IOException {
+        Socket s = new Socket();
+        if (receiveBuffer > 0) s.setReceiveBufferSize(receiveBuffer);
+        s.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port()));
+        OutputStream out = s.getOutputStream();
+        out.write(("GET /events HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return s;
+    }
+
+    private void awaitSubscribers(int n) throws InterruptedException {
+        for (int i = 0; i < 1000 && server.subscriberCount() != n; i++) Thread.sleep(10);
+        assertEquals(n, server.subscriberCount());
+    }
+
+    private static byte[] body(int size, int n) {
+        byte[] b = new byte[size];
+        Arrays.fill(b, (byte) 'x');
+        byte[] head = ("{\"n\":" + n + ",\"pad\":\"").getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(head, 0, b, 0, head.length);
+        b[size - 2] = '"';
+        b[size - 1] = '}';
+        return b;
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWithoutBlockingOthers() throws Exception {
+        try (Socket reader = subscribe(0); Socket stalled = subscribe(4096)) {
+            awaitSubscribers(2);
+
+            // 読む側は data: 行を数える
+            AtomicInteger frames = new AtomicInteger();
+            Thread t = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(
+                        new InputStreamReader(reader.getInputStream(), StandardCharsets.US_ASCII))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (line.startsWith("data: ")) frames.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    // 終了
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+
+            // 読まない側の送信バッファがすぐに埋まる大きさで、数秒間 publish し続ける
+            long worst = 0;
+            long end = System.nanoTime() + 5_000_000_000L;
+            for (int n = 0; System.nanoTime() < end; n++) {
+                long t0 = System.nanoTime();
+                server.publish(body(256 * 1024, n));
+                worst = Math.max(worst, System.nanoTime() - t0);
+                Thread.sleep(20);
+            }
+
+            long worstMillis = worst / 1_000_000;
+            assertTrue(worstMillis < 100, () -> "publish blocked for " + worstMillis + " ms");
+            assertEquals(1, server.subscriberCount(), "stalled subscriber was not dropped");
+            int before = frames.get();
+            assertTrue(before > 10, () -> "reader got only " + before + " frames");
+
+            // 残った購読者には引き続き届く
+            for (int n = 0; n < 10; n++) {
+                server.publish(body(1024, n));
+                Thread.sleep(20);
+            }
+            for (int i = 0; i < 200 && frames.get() == before; i++) Thread.sleep(10);
+            assertTrue(frames.get() > before);
+        }
+    }
+
+    // 購読者が増えてもサーバーのスレッドは増えない
+    @Test
+    void thousandSubscribersKeepThreadCountBounded() throws Exception {
+        int before = Thread.activeCount();
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 1000; i++) sockets.add(subscribe(0));
+            awaitSubscribers(1000);
+            for (int n = 0; n < 5; n++) {
+                server.publish(body(1024, n));
+                Thread.sleep(20);
+            }
+
+            int threads = Thread.activeCount();
+            assertTrue(threads - before < 20, () -> before + " -> " + threads + " threads");
+
+            // 最後に繋いだ購読者にも届いている
+            Socket last = sockets.get(sockets.size() - 1);
+            last.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(
+                new InputStreamReader(last.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while ((line = in.readLine()) != null && !line.startsWith("data: ")) {
+                // ヘッダーを読み飛ばす
+            }
+            assertTrue(line != null);
+        } finally {
+            for (Socket s : sockets) s.close();
+        }
+    }
+
+    @Test
+    void disconnectedSubscriberIsRemoved() throws Exception {
+        Socket s = subscribe(0);
+        awaitSubscribers(1);
+        s.close();
+        for (int i = 0; i < 200 && server.subscriberCount() != 0; i++) {
+            server.publish(body(1024, i));
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.subscriberCount());
+    }
+}
@@ -0,0 +1,108 @@
+package problem1;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 以前の String.format による表示（HUDClockLabel.format）との一致
+class TimeFormatterTest {
+
+    private final TimeFormatter cs = new TimeFormatter(TimeFormatter.Precision.CENTISECONDS);
+    private final char[] buf = new char[TimeFormatter.MAX_LENGTH];
+
+    // 置き換え前の実装そのまま
+    private static String legacy(double sec) {
+        sec = (sec % 86400 + 86400) % 86400;
+        int h = (int) (sec / 3600);
+        int m = (int) ((sec % 3600) / 60);
+        double s = sec % 60;
+        return String.format(Locale.ROOT, "%02d:%02d:%05.2f", h, m, s);
+    }
+
+    private String format(TimeFormatter f, double sec) {
+        return new String(buf, 0, f.format(sec, buf));
+    }
+
+    // 秒が 60.00 に丸められた時だけ、以前は "MM:60.00" と出ていたのを繰り上げるようにした
+    private void assertParity(double sec) {
+        String old = legacy(sec);
+        String now = format(cs, sec);
+        if (old.endsWith(":60.00")) {
+            assertEquals("00", now.substring(6, 8), () -> "carry of " + sec + ": " + old + " -> " + now);
+            assertEquals(".00", now.substring(8), () -> "carry of " + sec);
+        } else {
+            assertEquals(old, now, () -> "sec=" + sec);
+        }
+    }
+
+    @Test
+    void negativeValues() {
+        SplittableRandom r = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            assertParity(-r.nextDouble() * 10 * 86400);
+        }
+        assertParity(-0.001);
+        assertParity(-1);
+        assertParity(-86400);
+        assertParity(-86400.5);
+    }
+
+    @Test
+    void valuesPastOneDay() {
+        SplittableRandom r = new SplittableRandom(2);
+        for (int i = 0; i < 100_000; i++) {
+            assertParity(86400 + r.nextDouble() * 1000 * 86400);
+        }
+        assertParity(86400);
+        assertParity(86400.01);
+        assertParity(172800 + 3723.45);
+    }
+
+    // 逆向き自転（金星・天王星）の天体時刻はエンジンの出力そのもので確かめる
+    @Test
+    void retrogradeRates() {
+        PlanetTimeEngine engine = new PlanetTimeEngine(4);
+        int venus = engine.addBody("Venus", -243.018 * 86400);
+        int uranus = engine.addBody("Uranus", -0.72 * 86400);
+        int mercury = engine.addBody("Mercury", 58.646 * 86400);
+
+        for (double earth = 0; earth < 400 * 86400; earth += 317.13) {
+            engine.tick(earth);
+            assertParity(engine.time(venus));
+            assertParity(engine.time(uranus));
+            assertParity(engine.time(mercury));
+        }
+    }
+
+    // 以前は正の値にも 1日を足してから割っていたので 59.995 が 59.99499999999534 になり "00:00:59.99" と出ていた
+    @Test
+    void roundingCarries() {
+        assertEquals("00:01:00.00", format(cs, 59.995));
+        assertEquals("00:01:00.00", format(cs, 59.999));
+        assertEquals("01:00:00.00", format(cs, 3599.996));
+        assertEquals("00:00:59.99", format(cs, 59.99));
+
+        TimeFormatter s = new TimeFormatter(TimeFormatter.Precision.SECONDS);
+        assertEquals("00:01:00", format(s, 59.5));
+        TimeFormatter ms = new TimeFormatter(TimeFormatter.Precision.MILLISECONDS);
+        assertEquals("00:01:00.000", format(ms, 59.9996));
+    }
+
+    @Test
+    void dayWrap() {
+        assertEquals("00:00:00.00", format(cs, 86399.996));
+        assertEquals("00:00:00.00", format(cs, 86400));
+        assertEquals("23:59:59.99", format(cs, 86399.99));
+        assertEquals("23:59:59.99", format(cs, -0.01));
+        assertEquals("00:00:00.00", format(cs, -0.004));
+    }
+
+    @Test
+    void notANumber() {
+        assertEquals("--:--:--.--", format(cs, Double.NaN));
+        assertEquals("--:--:--.--", format(cs, Double.POSITIVE_INFINITY));
+    }
+}
@@ -0,0 +1,106 @@
+package problem1;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 夏時間の切り替わり前後で ZoneRules を毎回引いた値と一致すること
+class ZoneOffsetCacheTest {
+
+    private static final long START = ZonedDateTime.parse("2024-01-01T00:00:00Z").toInstant().toEpochMilli();
+
+    private static long expectedOffset(ZoneRules rules, long ms) {
+        return rules.getOffset(Instant.ofEpochMilli(ms)).getTotalSeconds() * 1000L;
+    }
+
+    private static double expectedSecondOfDay(ZoneRules rules, long ms) {
+        return Math.floorMod(ms + expectedOffset(rules, ms), 86_400_000L) / 1000.0;
+    }
+
+    private static void assertAt(ZoneOffsetCache cache, ZoneRules rules, long ms) {
+        assertEquals(expectedOffset(rules, ms), cache.offsetMillis(ms), () -> "offset at " + Instant.ofEpochMilli(ms));
+        assertEquals(expectedSecondOfDay(rules, ms), cache.secondOfDay(ms), () -> "secondOfDay at " + Instant.ofEpochMilli(ms));
+    }
+
+    // 2024〜2025 年の切り替わり（夏時間の開始・終了）
+    private static ZoneOffsetTransition[] transitions(ZoneRules rules) {
+        ZoneOffsetTransition[] out = new ZoneOffsetTransition[4];
+        Instant at = Instant.ofEpochMilli(START);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = rules.nextTransition(at);
+            at = out[i].getInstant();
+        }
+        return out;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Europe/London", "America/New_York", "Australia/Sydney" })
+    void transitionInstantAndOneMillisecondAround(String zoneId) {
+        ZoneRules rules = ZoneId.of(zoneId).getRules();
+        for (ZoneOffsetTransition tr : transitions(rules)) {
+            long t = tr.toEpochSecond() * 1000L;
+            assertTrue(!tr.getOffsetBefore().equals(tr.getOffsetAfter()));
+
+            // 前から順に（キャッシュが有効範囲の終わりを越える）
+            ZoneOffsetCache forward = new ZoneOffsetCache(ZoneId.of(zoneId));
+            assertAt(forward, rules, t - 1);
+            assertAt(forward, rules, t);
+            assertAt(forward, rules, t + 1);
+
+            // 後ろから順に（有効範囲の始まりを越える）
+            ZoneOffsetCache backward = new ZoneOffsetCache(ZoneId.of(zoneId));
+            assertAt(backward, rules, t + 1);
+            assertAt(backward, rules, t);
+            assertAt(backward, rules, t - 1);
+
+            assertEquals(tr.getOffsetBefore().getTotalSeconds() * 1000L, forward.offsetMillis(t - 1));
+            assertEquals(tr.getOffsetAfter().getTotalSeconds() * 1000L, forward.offsetMillis(t));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Europe/London", "America/New_York", "Australia/Sydney" })
+    void nextTransitionBoundary(String zoneId) {
+        ZoneRules rules = ZoneId.of(zoneId).getRules();
+        ZoneOffsetTransition[] tr = transitions(rules);
+
+        // 1つ目の切り替わりの直後で引いたキャッシュは、次の切り替わりの直前まで同じオフセットで、ちょうどその時刻で切り替わる
+        ZoneOffsetCache cache = new ZoneOffsetCache(ZoneId.of(zoneId));
+        long first = tr[0].toEpochSecond() * 1000L;
+        long next = tr[1].toEpochSecond() * 1000L;
+        assertAt(cache, rules, first + 1);
+        assertAt(cache, rules, next - 1);
+        assertEquals(tr[1].getOffsetBefore().getTotalSeconds() * 1000L, cache.offsetMillis(next - 1));
+        assertAt(cache, rules, next);
+        assertEquals(tr[1].getOffsetAfter().getTotalSeconds() * 1000L, cache.offsetMillis(next));
+        assertAt(cache, rules, next + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Europe/London", "America/New_York", "Australia/Sydney", "UTC" })
+    void secondOfDayNowMatchesWallClock(String zoneId) {
+        ZoneRules rules = ZoneId.of(zoneId).getRules();
+        ZoneOffsetCache cache = new ZoneOffsetCache(ZoneId.of(zoneId));
+
+        long before = System.currentTimeMillis();
+        double now = cache.secondOfDayNow();
+        long after = System.currentTimeMillis();
+
+        double lo = expectedSecondOfDay(rules, before);
+        double hi = expectedSecondOfDay(rules, after);
+        if (lo <= hi) {
+            assertTrue(now >= lo && now <= hi, () -> now + " not in [" + lo + ", " + hi + "]");
+        } else {
+            // 0時をまたいだ
+            assertTrue(now >= lo || now <= hi, () -> now + " not in [" + lo + ", 86400) or [0, " + hi + "]");
+        }
+    }
+}